@@ -0,0 +1,58 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
+import io.reactivex.MaybeTransformer;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.SingleTransformer;
+import io.reactivex.functions.Consumer;
+import java.util.concurrent.Callable;
+
+/**
+ * Transformer that returns the cached result for a tag without subscribing upstream.
+ */
+class CachedTransformer<T> implements SingleTransformer<T, T>, MaybeTransformer<T, T> {
+  private final RxLifeCache cache;
+  private final String tag;
+  private final long ttlMillis;
+  private final Consumer<T> store = new Consumer<T>() {
+    @Override public void accept(T value) {
+      cache.put(tag, value, ttlMillis);
+    }
+  };
+
+  CachedTransformer(RxLifeCache cache, String tag, long ttlMillis) {
+    this.cache = cache;
+    this.tag = tag;
+    this.ttlMillis = ttlMillis;
+  }
+
+  @Override public SingleSource<T> apply(final Single<T> upstream) {
+    return Single.defer(new Callable<SingleSource<T>>() {
+      @SuppressWarnings("unchecked") @Override public SingleSource<T> call() {
+        Object cached = cache.get(tag);
+        if (cached != null) {
+          return Single.just((T) cached);
+        }
+        return upstream.doOnSuccess(store);
+      }
+    });
+  }
+
+  @Override public MaybeSource<T> apply(final Maybe<T> upstream) {
+    return Maybe.defer(new Callable<MaybeSource<T>>() {
+      @SuppressWarnings("unchecked") @Override public MaybeSource<T> call() {
+        Object cached = cache.get(tag);
+        if (cached != null) {
+          return Maybe.just((T) cached);
+        }
+        return upstream.doOnSuccess(store);
+      }
+    });
+  }
+
+  @Override public String toString() {
+    return "CachedTransformer{" + "tag='" + tag + '\'' + ", ttlMillis=" + ttlMillis + '}';
+  }
+}
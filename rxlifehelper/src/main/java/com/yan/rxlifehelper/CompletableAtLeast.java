@@ -0,0 +1,67 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.disposables.Disposable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 状态达到 state 时结束，已经达到时直接结束
+ *
+ * owner 销毁时同样直接结束，由后面的 *UntilLifeEvent 按生命周期结束处理
+ */
+final class CompletableAtLeast extends Completable {
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.State state;
+
+  CompletableAtLeast(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.State state) {
+    this.manager = manager;
+    this.state = state;
+  }
+
+  @Override protected void subscribeActual(CompletableObserver observer) {
+    AtLeastObserver parent = new AtLeastObserver(observer, manager, state);
+    observer.onSubscribe(parent);
+    parent.stateSwitch.start();
+  }
+
+  static final class AtLeastObserver extends AtomicBoolean implements Disposable {
+    private final CompletableObserver downstream;
+    final LifeStateSwitch stateSwitch;
+
+    AtLeastObserver(CompletableObserver downstream, RxLifeHelper.InnerLifeCycleManager manager,
+        Lifecycle.State state) {
+      this.downstream = downstream;
+      stateSwitch = new LifeStateSwitch(manager, state) {
+        @Override void onAtLeast() {
+          finish();
+        }
+
+        @Override void onBelow() {
+        }
+
+        @Override void onDestroyed() {
+          finish();
+        }
+      };
+    }
+
+    private void finish() {
+      if (compareAndSet(false, true)) {
+        stateSwitch.stop();
+        downstream.onComplete();
+      }
+    }
+
+    @Override public void dispose() {
+      if (compareAndSet(false, true)) {
+        stateSwitch.stop();
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return get();
+    }
+  }
+}
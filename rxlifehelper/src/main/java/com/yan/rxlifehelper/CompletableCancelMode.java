@@ -0,0 +1,19 @@
+package com.yan.rxlifehelper;
+
+/**
+ * Completable 绑定的生命周期结束时，下游收到的事件
+ */
+public enum CompletableCancelMode {
+  /**
+   * onError(CancellationException)，默认行为
+   */
+  ERROR,
+  /**
+   * 只取消上游，下游不再收到任何事件
+   */
+  DISPOSE,
+  /**
+   * 取消上游后 onComplete
+   */
+  COMPLETE
+}
@@ -0,0 +1,100 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.CompletableSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 等价于 ambArray(upstream, lifecycle.filter(event).flatMapCompletable(CANCEL_COMPLETABLE))，
+ * 目标 event 发生时取消上游，下游收到的事件由 {@link CompletableCancelMode} 决定，
+ * 只有 ERROR 会创建异常
+ */
+final class CompletableUntilLifeEvent extends Completable {
+  private final CompletableSource source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.Event event;
+  private final CompletableCancelMode mode;
+
+  CompletableUntilLifeEvent(CompletableSource source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.Event event, CompletableCancelMode mode) {
+    this.source = source;
+    this.manager = manager;
+    this.event = event;
+    this.mode = mode;
+  }
+
+  @Override protected void subscribeActual(CompletableObserver observer) {
+    UntilEventObserver parent = new UntilEventObserver(observer, manager, event, mode);
+    observer.onSubscribe(parent);
+    if (!parent.register()) {
+      parent.onLifeEvent();
+      return;
+    }
+    source.subscribe(parent);
+  }
+
+  static final class UntilEventObserver extends LifeEventNode
+      implements CompletableObserver, Disposable {
+    private final CompletableObserver downstream;
+    private final CompletableCancelMode mode;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+    UntilEventObserver(CompletableObserver downstream, RxLifeHelper.InnerLifeCycleManager manager,
+        Lifecycle.Event event, CompletableCancelMode mode) {
+      super(manager, event);
+      this.downstream = downstream;
+      this.mode = mode;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override public void onComplete() {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onComplete();
+      }
+    }
+
+    @Override public void onError(Throwable e) {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onError(e);
+      } else {
+        RxJavaPlugins.onError(e);
+      }
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(upstream);
+      unregister();
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(upstream.get());
+    }
+
+    @Override void onLifeEvent() {
+      if (!DisposableHelper.dispose(upstream)) {
+        return;
+      }
+      switch (mode) {
+        case COMPLETE:
+          downstream.onComplete();
+          break;
+        case DISPOSE:
+          break;
+        default:
+          downstream.onError(new CancellationException());
+          break;
+      }
+    }
+  }
+}
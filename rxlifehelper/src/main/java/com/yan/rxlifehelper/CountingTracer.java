@@ -0,0 +1,135 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 计数实现，可以定期读取后上报
+ */
+public class CountingTracer implements RxLifeHelperTracer {
+  private final AtomicLong binds = new AtomicLong();
+  private final AtomicLong subscribes = new AtomicLong();
+  private final AtomicLong unsubscribes = new AtomicLong();
+  private final AtomicLong lifecycleDisposes = new AtomicLong();
+  private final AtomicLong tagDisposes = new AtomicLong();
+  private final AtomicLong droppedItems = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong skippedTasks = new AtomicLong();
+  private final AtomicLong disposeLatencyNanos = new AtomicLong();
+  private final AtomicLong maxDisposeLatencyNanos = new AtomicLong();
+
+  @Override public void onBind(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long timeNanos) {
+    binds.incrementAndGet();
+  }
+
+  @Override
+  public void onSubscribe(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long timeNanos) {
+    subscribes.incrementAndGet();
+  }
+
+  @Override
+  public void onUnsubscribe(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long subscribeNanos, long timeNanos) {
+    unsubscribes.incrementAndGet();
+  }
+
+  @Override public void onDisposeByLifecycle(@Nullable LifecycleOwner owner, Lifecycle.Event event,
+      long subscribeNanos, long eventNanos, long disposedNanos) {
+    lifecycleDisposes.incrementAndGet();
+    addDisposeLatency(disposedNanos - eventNanos);
+  }
+
+  @Override public void onDisposeByTag(String tag, long subscribeNanos, long sendNanos,
+      long disposedNanos) {
+    tagDisposes.incrementAndGet();
+    addDisposeLatency(disposedNanos - sendNanos);
+  }
+
+  @Override public void onItemDropped(@Nullable LifecycleOwner owner, long timeNanos) {
+    droppedItems.incrementAndGet();
+  }
+
+  @Override
+  public void onError(@Nullable LifecycleOwner owner, Throwable error, long timeNanos) {
+    errors.incrementAndGet();
+  }
+
+  @Override public void onTaskSkipped(@Nullable LifecycleOwner owner, Lifecycle.Event event,
+      int count, long timeNanos) {
+    skippedTasks.addAndGet(count);
+  }
+
+  private void addDisposeLatency(long latency) {
+    disposeLatencyNanos.addAndGet(latency);
+    for (; ; ) {
+      long max = maxDisposeLatencyNanos.get();
+      if (latency <= max || maxDisposeLatencyNanos.compareAndSet(max, latency)) {
+        return;
+      }
+    }
+  }
+
+  public long bindCount() {
+    return binds.get();
+  }
+
+  public long subscribeCount() {
+    return subscribes.get();
+  }
+
+  /**
+   * 当前仍在订阅中的流
+   */
+  public long liveBindingCount() {
+    return subscribes.get() - unsubscribes.get() - lifecycleDisposes.get() - tagDisposes.get();
+  }
+
+  public long lifecycleDisposeCount() {
+    return lifecycleDisposes.get();
+  }
+
+  public long tagDisposeCount() {
+    return tagDisposes.get();
+  }
+
+  public long droppedItemCount() {
+    return droppedItems.get();
+  }
+
+  public long errorCount() {
+    return errors.get();
+  }
+
+  public long skippedTaskCount() {
+    return skippedTasks.get();
+  }
+
+  /**
+   * 生命周期、tag 取消的总耗时
+   */
+  public long totalDisposeLatencyNanos() {
+    return disposeLatencyNanos.get();
+  }
+
+  public long maxDisposeLatencyNanos() {
+    return maxDisposeLatencyNanos.get();
+  }
+
+  @Override public String toString() {
+    return "CountingTracer{"
+        + "binds=" + binds
+        + ", subscribes=" + subscribes
+        + ", liveBindings=" + liveBindingCount()
+        + ", lifecycleDisposes=" + lifecycleDisposes
+        + ", tagDisposes=" + tagDisposes
+        + ", droppedItems=" + droppedItems
+        + ", errors=" + errors
+        + ", skippedTasks=" + skippedTasks
+        + ", maxDisposeLatencyNanos=" + maxDisposeLatencyNanos
+        + '}';
+  }
+}
@@ -0,0 +1,87 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.AtomicThrowable;
+import io.reactivex.internal.util.HalfSerializer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 等价于 takeUntil(lifecycle.filter(event))，目标 event 发生时取消上游并 onComplete
+ */
+final class FlowableUntilLifeEvent<T> extends Flowable<T> {
+  private final Flowable<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.Event event;
+
+  FlowableUntilLifeEvent(Flowable<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.Event event) {
+    this.source = source;
+    this.manager = manager;
+    this.event = event;
+  }
+
+  @Override protected void subscribeActual(Subscriber<? super T> subscriber) {
+    UntilEventSubscriber<T> parent = new UntilEventSubscriber<>(subscriber, manager, event);
+    subscriber.onSubscribe(parent);
+    if (!parent.register()) {
+      parent.onLifeEvent();
+      return;
+    }
+    source.subscribe(parent);
+  }
+
+  static final class UntilEventSubscriber<T> extends LifeEventNode
+      implements FlowableSubscriber<T>, Subscription {
+    private final Subscriber<? super T> downstream;
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicThrowable error = new AtomicThrowable();
+
+    UntilEventSubscriber(Subscriber<? super T> downstream,
+        RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event) {
+      super(manager, event);
+      this.downstream = downstream;
+    }
+
+    @Override public void onSubscribe(Subscription s) {
+      SubscriptionHelper.deferredSetOnce(upstream, requested, s);
+    }
+
+    @Override public void onNext(T t) {
+      HalfSerializer.onNext(downstream, t, wip, error);
+    }
+
+    @Override public void onError(Throwable t) {
+      unregister();
+      HalfSerializer.onError(downstream, t, wip, error);
+    }
+
+    @Override public void onComplete() {
+      unregister();
+      HalfSerializer.onComplete(downstream, wip, error);
+    }
+
+    @Override public void request(long n) {
+      SubscriptionHelper.deferredRequest(upstream, requested, n);
+    }
+
+    @Override public void cancel() {
+      SubscriptionHelper.cancel(upstream);
+      unregister();
+    }
+
+    @Override void onLifeEvent() {
+      if (SubscriptionHelper.cancel(upstream)) {
+        HalfSerializer.onComplete(downstream, wip, error);
+      }
+    }
+  }
+}
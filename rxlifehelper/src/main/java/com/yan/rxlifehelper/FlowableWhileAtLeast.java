@@ -0,0 +1,171 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.subscriptions.SubscriptionArbiter;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.subscribers.SerializedSubscriber;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 与 {@link ObservableWhileAtLeast} 相同，下游未满足的 request 在重新订阅时补给新的上游
+ */
+final class FlowableWhileAtLeast<T> extends Flowable<T> {
+  private final Publisher<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.State state;
+  private final Function<? super T, ? extends Publisher<? extends T>> resume;
+
+  FlowableWhileAtLeast(Publisher<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.State state, Function<? super T, ? extends Publisher<? extends T>> resume) {
+    this.source = source;
+    this.manager = manager;
+    this.state = state;
+    this.resume = resume;
+  }
+
+  @Override protected void subscribeActual(Subscriber<? super T> subscriber) {
+    SerializedSubscriber<T> serialized = new SerializedSubscriber<>(subscriber);
+    WhileAtLeastSubscriber<T> parent =
+        new WhileAtLeastSubscriber<>(serialized, source, manager, state, resume);
+    serialized.onSubscribe(parent);
+    parent.stateSwitch.start();
+  }
+
+  static final class WhileAtLeastSubscriber<T> extends SubscriptionArbiter {
+    private final Subscriber<? super T> downstream;
+    private final Publisher<T> source;
+    private final Function<? super T, ? extends Publisher<? extends T>> resume;
+    /**
+     * 当前的上游，低于 state 时为 null
+     */
+    private final AtomicReference<Subscription> current = new AtomicReference<>();
+    private volatile T last;
+    final LifeStateSwitch stateSwitch;
+
+    WhileAtLeastSubscriber(Subscriber<? super T> downstream, Publisher<T> source,
+        RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.State state,
+        Function<? super T, ? extends Publisher<? extends T>> resume) {
+      this.downstream = downstream;
+      this.source = source;
+      this.resume = resume;
+      stateSwitch = new LifeStateSwitch(manager, state) {
+        @Override void onAtLeast() {
+          subscribeNext();
+        }
+
+        @Override void onBelow() {
+          SubscriptionHelper.set(current, null);
+        }
+
+        @Override void onDestroyed() {
+          if (SubscriptionHelper.cancel(current)) {
+            stop();
+            WhileAtLeastSubscriber.this.downstream.onComplete();
+          }
+        }
+      };
+    }
+
+    private void subscribeNext() {
+      InnerSubscriber<T> inner = new InnerSubscriber<>(this);
+      if (!SubscriptionHelper.set(current, inner)) {
+        return;
+      }
+      Publisher<? extends T> next = source;
+      T value = last;
+      if (resume != null && value != null) {
+        try {
+          next = ObjectHelper.requireNonNull(resume.apply(value),
+              "The resume function returned a null Publisher");
+        } catch (Throwable ex) {
+          Exceptions.throwIfFatal(ex);
+          innerError(inner, ex);
+          return;
+        }
+      }
+      next.subscribe(inner);
+    }
+
+    void innerSubscribe(InnerSubscriber<T> inner, Subscription s) {
+      if (current.get() == inner) {
+        // 新的上游会收到下游还没有满足的 request
+        setSubscription(s);
+      }
+    }
+
+    void innerNext(InnerSubscriber<T> inner, T value) {
+      if (current.get() == inner) {
+        produced(1);
+        last = value;
+        downstream.onNext(value);
+      }
+    }
+
+    void innerError(InnerSubscriber<T> inner, Throwable e) {
+      if (current.compareAndSet(inner, SubscriptionHelper.CANCELLED)) {
+        stateSwitch.stop();
+        downstream.onError(e);
+      } else {
+        RxJavaPlugins.onError(e);
+      }
+    }
+
+    void innerComplete(InnerSubscriber<T> inner) {
+      if (current.compareAndSet(inner, SubscriptionHelper.CANCELLED)) {
+        stateSwitch.stop();
+        downstream.onComplete();
+      }
+    }
+
+    @Override public void cancel() {
+      super.cancel();
+      if (SubscriptionHelper.cancel(current)) {
+        stateSwitch.stop();
+      }
+    }
+  }
+
+  static final class InnerSubscriber<T> extends AtomicReference<Subscription>
+      implements FlowableSubscriber<T>, Subscription {
+    private final WhileAtLeastSubscriber<T> parent;
+
+    InnerSubscriber(WhileAtLeastSubscriber<T> parent) {
+      this.parent = parent;
+    }
+
+    @Override public void onSubscribe(Subscription s) {
+      if (SubscriptionHelper.setOnce(this, s)) {
+        parent.innerSubscribe(this, s);
+      }
+    }
+
+    @Override public void onNext(T value) {
+      parent.innerNext(this, value);
+    }
+
+    @Override public void onError(Throwable e) {
+      parent.innerError(this, e);
+    }
+
+    @Override public void onComplete() {
+      parent.innerComplete(this);
+    }
+
+    @Override public void request(long n) {
+      // 请求统一由 parent 的 arbiter 发给上游
+    }
+
+    @Override public void cancel() {
+      SubscriptionHelper.cancel(this);
+    }
+  }
+}
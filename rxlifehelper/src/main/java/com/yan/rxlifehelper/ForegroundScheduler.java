@@ -0,0 +1,550 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.EmptyDisposable;
+import io.reactivex.internal.disposables.SequentialDisposable;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 owner 生命周期排优先级的线程池:
+ * 1. owner 处于 RESUMED 的任务最先执行
+ * 2. 没有 owner、或 owner 处于其他状态的任务其次
+ * 3. owner 已经 ON_STOP 的任务暂缓，owner 重新 ON_START 或等待超过 parkTimeout 后才执行
+ * 4. 可以执行之后又等待超过 aging 的任务提升到与 RESUMED 相同的优先级，先等的先执行，
+ *    RESUMED 的任务一直很多时其他任务也不会一直得不到执行
+ *
+ * 状态直接读取 owner 的 InnerLifeCycleManager，不额外注册回调；只有暂缓时才在 manager 上挂一个
+ * ON_START 节点用于唤醒。通过 {@link #forOwner(LifecycleOwner)} 得到按 owner 标记任务的 Scheduler，
+ * 同一个 worker 的任务仍按顺序依次执行
+ */
+public final class ForegroundScheduler extends Scheduler {
+  private static final int PRIORITY_RESUMED = 0;
+  private static final int PRIORITY_NORMAL = 1;
+  private static final int PRIORITY_PARKED = 2;
+  private static final int PRIORITY_NONE = 3;
+
+  private static final Object NO_OWNER = new Object();
+  private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+  /**
+   * 默认的 aging 时间
+   */
+  static final long DEFAULT_AGING_MILLIS = 200;
+
+  private final int parallelism;
+  private final long parkTimeoutNanos;
+  private final long agingNanos;
+  /**
+   * 以下字段由 this 加锁访问
+   */
+  private final HashMap<Object, Lane> lanes = new HashMap<>();
+  /**
+   * 有任务的 lane，按加入顺序
+   */
+  private final ArrayList<Lane> pending = new ArrayList<>();
+  private int threads;
+  private int idle;
+  private boolean shutdown;
+
+  private final AtomicLong expiredCount = new AtomicLong();
+
+  private ForegroundScheduler(int parallelism, long parkTimeoutNanos, long agingNanos) {
+    this.parallelism = parallelism;
+    this.parkTimeoutNanos = parkTimeoutNanos;
+    this.agingNanos = agingNanos;
+  }
+
+  /**
+   * aging 为 {@value #DEFAULT_AGING_MILLIS} 毫秒，见 {@link #create(int, long, long)}
+   */
+  public static ForegroundScheduler create(int parallelism, long parkTimeoutMillis) {
+    return create(parallelism, parkTimeoutMillis, DEFAULT_AGING_MILLIS);
+  }
+
+  /**
+   * @param parallelism 线程数，按需创建
+   * @param parkTimeoutMillis 已经 ON_STOP 的 owner 的任务最多暂缓的时间
+   * @param agingMillis 任务可以执行之后最多等待多久提升到最高优先级
+   */
+  public static ForegroundScheduler create(int parallelism, long parkTimeoutMillis,
+      long agingMillis) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
+    }
+    if (parkTimeoutMillis < 0) {
+      throw new IllegalArgumentException(
+          "parkTimeoutMillis >= 0 required but it was " + parkTimeoutMillis);
+    }
+    if (agingMillis < 0) {
+      throw new IllegalArgumentException("agingMillis >= 0 required but it was " + agingMillis);
+    }
+    return new ForegroundScheduler(parallelism,
+        TimeUnit.MILLISECONDS.toNanos(parkTimeoutMillis),
+        TimeUnit.MILLISECONDS.toNanos(agingMillis));
+  }
+
+  /**
+   * 任务标记为 owner 的 Scheduler, owner 已经销毁时按没有 owner 处理
+   */
+  @MainThread public Scheduler forOwner(LifecycleOwner lifecycleOwner) {
+    if (lifecycleOwner.getLifecycle() == null
+        || lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      return this;
+    }
+    return new OwnerScheduler(this, RxLifeHelper.getLifeManager(lifecycleOwner));
+  }
+
+  /**
+   * 没有 owner 的 worker
+   */
+  @NonNull @Override public Worker createWorker() {
+    return new ForegroundWorker(this, null);
+  }
+
+  /**
+   * 因为等待超过 parkTimeout 而执行的暂缓任务个数
+   */
+  public long expiredCount() {
+    return expiredCount.get();
+  }
+
+  @Override public void shutdown() {
+    synchronized (this) {
+      shutdown = true;
+      // 暂缓中的 lane 还挂着 ON_START 节点，不摘掉会一直留在 owner 上
+      for (int i = 0, size = pending.size(); i < size; i++) {
+        pending.get(i).unwatch();
+      }
+      pending.clear();
+      lanes.clear();
+      notifyAll();
+    }
+  }
+
+  void execute(@Nullable RxLifeHelper.InnerLifeCycleManager manager, Runnable task) {
+    Object key = manager != null ? manager : NO_OWNER;
+    synchronized (this) {
+      if (shutdown) {
+        return;
+      }
+      Lane lane = lanes.get(key);
+      if (lane == null) {
+        lane = new Lane(manager);
+        lanes.put(key, lane);
+        pending.add(lane);
+      }
+      lane.offer(task, System.nanoTime());
+      if (idle > 0) {
+        notify();
+      } else if (threads < parallelism) {
+        startThread();
+      }
+    }
+  }
+
+  /**
+   * 持有 this 的锁调用
+   */
+  private void startThread() {
+    threads++;
+    Thread thread = new Thread(new Runnable() {
+      @Override public void run() {
+        loop();
+      }
+    }, "RxLifeForeground-" + THREAD_INDEX.incrementAndGet());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void loop() {
+    try {
+      for (; ; ) {
+        Runnable task = take();
+        if (task == null) {
+          return;
+        }
+        try {
+          task.run();
+        } catch (Throwable ex) {
+          Exceptions.throwIfFatal(ex);
+          RxJavaPlugins.onError(ex);
+        }
+      }
+    } catch (InterruptedException e) {
+      // 线程被中断，交给下面补一个线程
+    } finally {
+      synchronized (this) {
+        threads--;
+        // 因为中断或致命错误退出时还有任务，补一个线程继续执行
+        if (!shutdown && !pending.isEmpty() && idle == 0) {
+          startThread();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return null 已经 shutdown
+   */
+  private synchronized Runnable take() throws InterruptedException {
+    for (; ; ) {
+      if (shutdown) {
+        return null;
+      }
+      long now = System.nanoTime();
+      long waitNanos = Long.MAX_VALUE;
+      Lane best = null;
+      int bestRank = PRIORITY_NONE;
+      int bestPriority = PRIORITY_NONE;
+      long bestReadyNanos = 0;
+      for (int i = 0, size = pending.size(); i < size; i++) {
+        Lane lane = pending.get(i);
+        int priority = lane.priority();
+        long readyNanos = lane.headNanos();
+        if (priority == PRIORITY_PARKED) {
+          readyNanos += parkTimeoutNanos;
+          long remain = readyNanos - now;
+          if (remain > 0) {
+            if (!lane.watchStart(this)) {
+              // 等待节点挂不上，状态已经变化，重新判断
+              waitNanos = 0;
+            }
+            waitNanos = Math.min(waitNanos, remain);
+            continue;
+          }
+        }
+        // 可以执行之后等待太久的任务提升到最高优先级
+        int rank = now - readyNanos >= agingNanos ? PRIORITY_RESUMED : priority;
+        // 同一优先级先等的先执行
+        if (rank < bestRank || (rank == bestRank && readyNanos - bestReadyNanos < 0)) {
+          best = lane;
+          bestRank = rank;
+          bestPriority = priority;
+          bestReadyNanos = readyNanos;
+        }
+      }
+      if (best != null) {
+        if (bestPriority == PRIORITY_PARKED) {
+          expiredCount.incrementAndGet();
+        }
+        Runnable task = best.poll();
+        if (best.isEmpty()) {
+          pending.remove(best);
+          lanes.remove(best.manager != null ? best.manager : NO_OWNER);
+          best.unwatch();
+        }
+        return task;
+      }
+      if (waitNanos == 0) {
+        continue;
+      }
+      idle++;
+      try {
+        if (waitNanos == Long.MAX_VALUE) {
+          wait();
+        } else {
+          TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+        }
+      } finally {
+        idle--;
+      }
+    }
+  }
+
+  /**
+   * owner 重新 ON_START 或销毁
+   */
+  synchronized void onOwnerStart(Lane lane) {
+    lane.watching = null;
+    notifyAll();
+  }
+
+  @Override public String toString() {
+    return "ForegroundScheduler{"
+        + "parallelism=" + parallelism
+        + ", parkTimeoutNanos=" + parkTimeoutNanos
+        + ", agingNanos=" + agingNanos
+        + ", expired=" + expiredCount
+        + '}';
+  }
+
+  /**
+   * 同一个 owner 待执行的任务，由 scheduler 加锁访问
+   */
+  static final class Lane {
+    @Nullable final RxLifeHelper.InnerLifeCycleManager manager;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final ArrayDeque<Long> enqueueNanos = new ArrayDeque<>();
+    /**
+     * 暂缓期间挂在 manager 上的节点
+     */
+    StartNode watching;
+
+    Lane(@Nullable RxLifeHelper.InnerLifeCycleManager manager) {
+      this.manager = manager;
+    }
+
+    void offer(Runnable task, long nanos) {
+      tasks.offer(task);
+      enqueueNanos.offer(nanos);
+    }
+
+    Runnable poll() {
+      enqueueNanos.poll();
+      return tasks.poll();
+    }
+
+    boolean isEmpty() {
+      return tasks.isEmpty();
+    }
+
+    long headNanos() {
+      return enqueueNanos.peek();
+    }
+
+    int priority() {
+      if (manager == null) {
+        return PRIORITY_NORMAL;
+      }
+      Lifecycle.Event event = manager.lastEvent();
+      if (event == Lifecycle.Event.ON_RESUME) {
+        return PRIORITY_RESUMED;
+      }
+      if (event == Lifecycle.Event.ON_STOP) {
+        return PRIORITY_PARKED;
+      }
+      return PRIORITY_NORMAL;
+    }
+
+    /**
+     * @return false ON_START 已经发生或 owner 已经销毁
+     */
+    boolean watchStart(ForegroundScheduler scheduler) {
+      if (watching != null) {
+        return true;
+      }
+      StartNode node = new StartNode(manager, scheduler, this);
+      if (manager.addNode(node)) {
+        watching = node;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * 任务已经取完，不再需要唤醒
+     */
+    void unwatch() {
+      if (watching != null) {
+        manager.removeNode(watching);
+        watching = null;
+      }
+    }
+  }
+
+  /**
+   * 暂缓期间挂在 manager 上，ON_START 或销毁时唤醒等待的线程
+   */
+  static final class StartNode extends LifeEventNode {
+    private final ForegroundScheduler scheduler;
+    private final Lane lane;
+
+    StartNode(RxLifeHelper.InnerLifeCycleManager manager, ForegroundScheduler scheduler,
+        Lane lane) {
+      super(manager, Lifecycle.Event.ON_START);
+      this.scheduler = scheduler;
+      this.lane = lane;
+    }
+
+    @Override void onLifeEvent() {
+      scheduler.onOwnerStart(lane);
+    }
+
+    @Override boolean traced() {
+      return false;
+    }
+  }
+
+  static final class OwnerScheduler extends Scheduler {
+    private final ForegroundScheduler parent;
+    private final RxLifeHelper.InnerLifeCycleManager manager;
+
+    OwnerScheduler(ForegroundScheduler parent, RxLifeHelper.InnerLifeCycleManager manager) {
+      this.parent = parent;
+      this.manager = manager;
+    }
+
+    @NonNull @Override public Worker createWorker() {
+      return new ForegroundWorker(parent, manager);
+    }
+  }
+
+  /**
+   * 与 ExecutorScheduler 的 worker 相同，任务先进入自己的队列，每次只向线程池提交一个，
+   * 保证同一个 worker 的任务依次执行
+   */
+  static final class ForegroundWorker extends Worker implements Runnable {
+    private final ForegroundScheduler scheduler;
+    @Nullable private final RxLifeHelper.InnerLifeCycleManager manager;
+    private final MpscLinkedQueue<Runnable> queue = new MpscLinkedQueue<>();
+    /**
+     * 还在延时中的任务，worker dispose 时一起取消
+     */
+    private final CompositeDisposable delayed = new CompositeDisposable();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean disposed;
+
+    ForegroundWorker(ForegroundScheduler scheduler,
+        @Nullable RxLifeHelper.InnerLifeCycleManager manager) {
+      this.scheduler = scheduler;
+      this.manager = manager;
+    }
+
+    @NonNull @Override public Disposable schedule(@NonNull Runnable run) {
+      if (disposed) {
+        return EmptyDisposable.INSTANCE;
+      }
+      Task task = new Task(RxJavaPlugins.onSchedule(run));
+      queue.offer(task);
+      if (wip.getAndIncrement() == 0) {
+        scheduler.execute(manager, this);
+      }
+      return task;
+    }
+
+    @NonNull @Override
+    public Disposable schedule(@NonNull final Runnable run, long delay, @NonNull TimeUnit unit) {
+      if (delay <= 0) {
+        return schedule(run);
+      }
+      if (disposed) {
+        return EmptyDisposable.INSTANCE;
+      }
+      // 延时交给 single 线程，到时间后再按优先级排队
+      DelayedTask task = new DelayedTask(this, run);
+      if (!delayed.add(task)) {
+        return EmptyDisposable.INSTANCE;
+      }
+      task.timer.replace(Schedulers.single().scheduleDirect(task, delay, unit));
+      return task;
+    }
+
+    /**
+     * 每次只执行一个任务，剩下的重新排队，让优先级更高的任务有机会先执行
+     */
+    @Override public void run() {
+      if (disposed) {
+        queue.clear();
+        return;
+      }
+      Runnable task = queue.poll();
+      if (task != null) {
+        try {
+          task.run();
+        } catch (Throwable ex) {
+          Exceptions.throwIfFatal(ex);
+          RxJavaPlugins.onError(ex);
+        }
+      }
+      if (disposed) {
+        queue.clear();
+        return;
+      }
+      if (wip.decrementAndGet() != 0) {
+        scheduler.execute(manager, this);
+      }
+    }
+
+    @Override public void dispose() {
+      if (!disposed) {
+        disposed = true;
+        delayed.dispose();
+        if (wip.getAndIncrement() == 0) {
+          queue.clear();
+        }
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return disposed;
+    }
+  }
+
+  /**
+   * 延时中的任务，到时间、被取消或 worker dispose 时从 worker 上移除
+   */
+  static final class DelayedTask implements Runnable, Disposable {
+    private final ForegroundWorker worker;
+    private final Runnable run;
+    final SequentialDisposable timer = new SequentialDisposable();
+    /**
+     * 先是 timer，到时间后换成排队的任务
+     */
+    private final SequentialDisposable current = new SequentialDisposable(timer);
+
+    DelayedTask(ForegroundWorker worker, Runnable run) {
+      this.worker = worker;
+      this.run = run;
+    }
+
+    @Override public void run() {
+      worker.delayed.delete(this);
+      current.replace(worker.schedule(run));
+    }
+
+    @Override public void dispose() {
+      if (!current.isDisposed()) {
+        current.dispose();
+        worker.delayed.delete(this);
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return current.isDisposed();
+    }
+  }
+
+  static final class Task extends AtomicBoolean implements Runnable, Disposable {
+    private final Runnable actual;
+
+    Task(Runnable actual) {
+      this.actual = actual;
+    }
+
+    @Override public void run() {
+      if (get()) {
+        return;
+      }
+      try {
+        actual.run();
+      } finally {
+        lazySet(true);
+      }
+    }
+
+    @Override public void dispose() {
+      lazySet(true);
+    }
+
+    @Override public boolean isDisposed() {
+      return get();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.yan.rxlifehelper;
+
+import com.yan.rxlifehelper.lifeobervable.FrameBatchFlowable;
+import com.yan.rxlifehelper.lifeobervable.FrameBatchObservable;
+import com.yan.rxlifehelper.lifeobervable.FrameClock;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import java.util.List;
+import org.reactivestreams.Publisher;
+
+/**
+ * Transformer that batches items from any thread and emits them once per frame on the main thread.
+ */
+class FrameBatchTransformer<T>
+    implements ObservableTransformer<T, List<T>>, FlowableTransformer<T, List<T>> {
+  private final FrameClock frameClock;
+
+  FrameBatchTransformer(FrameClock frameClock) {
+    this.frameClock = frameClock;
+  }
+
+  @Override public ObservableSource<List<T>> apply(Observable<T> upstream) {
+    return new FrameBatchObservable<>(upstream, frameClock);
+  }
+
+  @Override public Publisher<List<T>> apply(Flowable<T> upstream) {
+    return new FrameBatchFlowable<>(upstream, frameClock);
+  }
+
+  @Override public String toString() {
+    return "FrameBatchTransformer{" + "frameClock=" + frameClock + '}';
+  }
+}
@@ -5,34 +5,31 @@ import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.OnLifecycleEvent;
 
+/**
+ * 生命周期回调直接使用回调参数里的 owner，不持有 owner 引用
+ */
 abstract class GenericLifecycleObserver implements LifecycleObserver {
-  LifecycleOwner source;
-
-  GenericLifecycleObserver(LifecycleOwner source) {
-    this.source = source;
-  }
-
-  @OnLifecycleEvent(Lifecycle.Event.ON_CREATE) void onCreate() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_CREATE) void onCreate(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_CREATE);
   }
 
-  @OnLifecycleEvent(Lifecycle.Event.ON_START) void onStart() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_START) void onStart(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_START);
   }
 
-  @OnLifecycleEvent(Lifecycle.Event.ON_RESUME) void onResume() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_RESUME) void onResume(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_RESUME);
   }
 
-  @OnLifecycleEvent(Lifecycle.Event.ON_PAUSE) void onPause() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_PAUSE) void onPause(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_PAUSE);
   }
 
-  @OnLifecycleEvent(Lifecycle.Event.ON_STOP) void onStop() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_STOP) void onStop(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_STOP);
   }
 
-  @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY) void onDestroy() {
+  @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY) void onDestroy(LifecycleOwner source) {
     onStateChanged(source, Lifecycle.Event.ON_DESTROY);
   }
 
@@ -0,0 +1,129 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Predicate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import org.reactivestreams.Publisher;
+
+/**
+ * Transformer that only lets the latest subscription of a tag deliver results.
+ * <p>
+ * 订阅时记下 tag 的代数，数据到达时代数已经不是最新的就丢弃并结束，
+ * 放在 observeOn(主线程) 之后可以保证主线程上只会收到最后一次订阅的结果。
+ * Single 被丢弃时以 CancellationException 结束，与 bindFilterTag 一致
+ */
+class LatestTagTransformer<T> extends LifecycleTransformer<T> {
+  private static final Callable<Throwable> STALE = new Callable<Throwable>() {
+    @Override public Throwable call() {
+      return new CancellationException();
+    }
+  };
+
+  private final TagGenerations generations;
+  private final String tag;
+  /**
+   * 同时取消上游时不为 null
+   */
+  private final LifecycleTransformer<T> cancel;
+
+  LatestTagTransformer(TagGenerations generations, String tag, LifecycleTransformer<T> cancel) {
+    super(null);
+    this.generations = generations;
+    this.tag = tag;
+    this.cancel = cancel;
+  }
+
+  private Latest<T> subscribeLatest() {
+    return new Latest<>(generations, generations.acquire(tag));
+  }
+
+  @Override public ObservableSource<T> apply(Observable<T> upstream) {
+    final Observable<T> source = cancel != null ? upstream.compose(cancel) : upstream;
+    return Observable.defer(new Callable<ObservableSource<T>>() {
+      @Override public ObservableSource<T> call() {
+        Latest<T> latest = subscribeLatest();
+        return source.takeWhile(latest).doFinally(latest);
+      }
+    });
+  }
+
+  @Override public Publisher<T> apply(Flowable<T> upstream) {
+    final Flowable<T> source = cancel != null ? upstream.compose(cancel) : upstream;
+    return Flowable.defer(new Callable<Publisher<T>>() {
+      @Override public Publisher<T> call() {
+        Latest<T> latest = subscribeLatest();
+        return source.takeWhile(latest).doFinally(latest);
+      }
+    });
+  }
+
+  @Override public SingleSource<T> apply(Single<T> upstream) {
+    final Single<T> source = cancel != null ? upstream.compose(cancel) : upstream;
+    return Single.defer(new Callable<SingleSource<T>>() {
+      @Override public SingleSource<T> call() {
+        Latest<T> latest = subscribeLatest();
+        return source.filter(latest).switchIfEmpty(Single.<T>error(STALE)).doFinally(latest);
+      }
+    });
+  }
+
+  @Override public MaybeSource<T> apply(Maybe<T> upstream) {
+    final Maybe<T> source = cancel != null ? upstream.compose(cancel) : upstream;
+    return Maybe.defer(new Callable<MaybeSource<T>>() {
+      @Override public MaybeSource<T> call() {
+        Latest<T> latest = subscribeLatest();
+        return source.filter(latest).doFinally(latest);
+      }
+    });
+  }
+
+  @Override public CompletableSource apply(Completable upstream) {
+    // 没有数据可以丢弃，只在需要时取消上游
+    return cancel != null ? upstream.compose(cancel) : upstream;
+  }
+
+  @Override public boolean equals(Object o) {
+    return this == o;
+  }
+
+  @Override public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  @Override public String toString() {
+    return "LatestTagTransformer{" + "tag='" + tag + '\'' + '}';
+  }
+
+  /**
+   * 一次订阅的代数，结束时释放引用
+   */
+  private static final class Latest<T> implements Predicate<T>, Action {
+    private final TagGenerations generations;
+    private final TagGenerations.Generation owner;
+    private final long generation;
+
+    Latest(TagGenerations generations, TagGenerations.Generation owner) {
+      this.generations = generations;
+      this.owner = owner;
+      this.generation = owner.next();
+    }
+
+    @Override public boolean test(T t) {
+      return owner.isLatest(generation);
+    }
+
+    @Override public void run() {
+      generations.release(owner);
+    }
+  }
+}
@@ -14,12 +14,15 @@
 
 package com.yan.rxlifehelper;
 
-import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.lifeobervable.LiveBufferPolicy;
+import com.yan.rxlifehelper.lifeobervable.LiveCompletable;
 import com.yan.rxlifehelper.lifeobervable.LiveFlowable;
 import com.yan.rxlifehelper.lifeobervable.LiveMaybe;
 import com.yan.rxlifehelper.lifeobervable.LiveObservable;
 import com.yan.rxlifehelper.lifeobervable.LiveSingle;
-import io.reactivex.BackpressureStrategy;
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.MaybeSource;
@@ -30,30 +33,42 @@ import io.reactivex.SingleSource;
 import org.reactivestreams.Publisher;
 
 /**
- * Transformer that continues a subscription until a second Observable emits an event.
+ * Transformer that continues a subscription until the owner's lifecycle reaches an event.
  */
-class LifeDataTransformer<T> extends LifecycleTransformer<T> {
-  private LifecycleOwner lifecycleOwner;
+class LifeDataTransformer<T> extends LifeEventTransformer<T> {
+  private final LiveBufferPolicy policy;
 
-  LifeDataTransformer(LifecycleOwner lifecycleOwner, Observable<?> observable) {
-    super(observable);
-    this.lifecycleOwner = lifecycleOwner;
+  LifeDataTransformer(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event,
+      LiveBufferPolicy policy) {
+    super(manager, event);
+    this.policy = policy;
   }
 
   @Override public ObservableSource<T> apply(final Observable<T> upstream) {
-    return new LiveObservable<>(upstream, lifecycleOwner).takeUntil(observable);
+    return super.apply(new LiveObservable<>(upstream, manager, policy));
   }
 
   @Override public Publisher<T> apply(Flowable<T> upstream) {
-    return new LiveFlowable<>(upstream, lifecycleOwner).takeUntil(
-        observable.toFlowable(BackpressureStrategy.LATEST));
+    return super.apply(new LiveFlowable<>(upstream, manager, policy));
   }
 
   @Override public SingleSource<T> apply(Single<T> upstream) {
-    return new LiveSingle<>(upstream, lifecycleOwner).takeUntil(observable.firstOrError());
+    return super.apply(new LiveSingle<>(upstream, manager, policy));
   }
 
   @Override public MaybeSource<T> apply(Maybe<T> upstream) {
-    return new LiveMaybe<>(upstream, lifecycleOwner).takeUntil(observable.firstElement());
+    return super.apply(new LiveMaybe<>(upstream, manager, policy));
+  }
+
+  @Override public CompletableSource apply(Completable upstream) {
+    return super.apply(new LiveCompletable(upstream, manager, policy));
+  }
+
+  @Override public boolean equals(Object o) {
+    return super.equals(o) && policy == ((LifeDataTransformer<?>) o).policy;
+  }
+
+  @Override public int hashCode() {
+    return 31 * super.hashCode() + policy.hashCode();
   }
 }
@@ -0,0 +1,35 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.disposables.Disposable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 目标 event 发生时执行一次 action 的节点，不经过 Rx 订阅，协程一侧共用同一个 manager
+ */
+final class LifeEventAction extends LifeEventNode implements Disposable {
+  private final AtomicReference<Runnable> action;
+
+  LifeEventAction(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event,
+      Runnable action) {
+    super(manager, event);
+    this.action = new AtomicReference<>(action);
+  }
+
+  @Override void onLifeEvent() {
+    Runnable action = this.action.getAndSet(null);
+    if (action != null) {
+      action.run();
+    }
+  }
+
+  @Override public void dispose() {
+    if (action.getAndSet(null) != null) {
+      unregister();
+    }
+  }
+
+  @Override public boolean isDisposed() {
+    return action.get() == null;
+  }
+}
@@ -0,0 +1,33 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 目标 event 发生时 dispose 持有的 Disposable，外部 dispose 时同时从 manager 上移除
+ */
+final class LifeEventDisposable extends LifeEventNode implements Disposable {
+  private final AtomicReference<Disposable> resource;
+
+  LifeEventDisposable(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event,
+      Disposable resource) {
+    super(manager, event);
+    this.resource = new AtomicReference<>(resource);
+  }
+
+  @Override void onLifeEvent() {
+    DisposableHelper.dispose(resource);
+  }
+
+  @Override public void dispose() {
+    if (DisposableHelper.dispose(resource)) {
+      unregister();
+    }
+  }
+
+  @Override public boolean isDisposed() {
+    return DisposableHelper.isDisposed(resource.get());
+  }
+}
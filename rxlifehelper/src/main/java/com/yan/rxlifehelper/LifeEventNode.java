@@ -0,0 +1,67 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+
+/**
+ * 直接挂在 InnerLifeCycleManager 上的生命周期节点，目标 event 发生时回调 onLifeEvent
+ *
+ * 绑定的流自身就是节点，不再经过 BehaviorSubject、filter 和 takeUntil 的 other observer
+ */
+abstract class LifeEventNode {
+  final RxLifeHelper.InnerLifeCycleManager manager;
+  final Lifecycle.Event event;
+
+  /**
+   * 以下字段只在 manager 的锁内访问
+   */
+  LifeEventNode prev;
+  LifeEventNode next;
+  boolean linked;
+  /**
+   * 只在安装了 tracer 时记录
+   */
+  long subscribeNanos;
+
+  LifeEventNode(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event) {
+    this.manager = manager;
+    this.event = event;
+  }
+
+  /**
+   * @return false 目标 event 已经发生过，调用方需要直接结束
+   */
+  final boolean register() {
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      subscribeNanos = System.nanoTime();
+    }
+    if (!manager.addNode(this)) {
+      return false;
+    }
+    if (tracer != null) {
+      tracer.onSubscribe(manager.owner(), event, null, subscribeNanos);
+    }
+    return true;
+  }
+
+  final void unregister() {
+    if (manager.removeNode(this)) {
+      RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+      if (tracer != null) {
+        tracer.onUnsubscribe(manager.owner(), event, null, subscribeNanos, System.nanoTime());
+      }
+    }
+  }
+
+  /**
+   * 目标 event 发生，此时节点已经从 manager 上移除
+   */
+  abstract void onLifeEvent();
+
+  /**
+   * 内部切换状态用的节点不上报给 tracer
+   */
+  boolean traced() {
+    return true;
+  }
+}
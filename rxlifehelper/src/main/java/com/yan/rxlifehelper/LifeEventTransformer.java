@@ -0,0 +1,81 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import org.reactivestreams.Publisher;
+
+/**
+ * Transformer that continues a subscription until the owner's lifecycle reaches an event.
+ * <p>
+ * 流直接挂在 InnerLifeCycleManager 上，每个流只多一个节点
+ */
+class LifeEventTransformer<T> extends LifecycleTransformer<T> {
+  final RxLifeHelper.InnerLifeCycleManager manager;
+  final Lifecycle.Event event;
+  final CompletableCancelMode completableMode;
+
+  LifeEventTransformer(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event) {
+    this(manager, event, CompletableCancelMode.ERROR);
+  }
+
+  LifeEventTransformer(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event,
+      CompletableCancelMode completableMode) {
+    super(null);
+    this.manager = manager;
+    this.event = event;
+    this.completableMode = completableMode;
+  }
+
+  @Override public ObservableSource<T> apply(Observable<T> upstream) {
+    return new ObservableUntilLifeEvent<>(upstream, manager, event);
+  }
+
+  @Override public Publisher<T> apply(Flowable<T> upstream) {
+    return new FlowableUntilLifeEvent<>(upstream, manager, event);
+  }
+
+  @Override public SingleSource<T> apply(Single<T> upstream) {
+    return new SingleUntilLifeEvent<>(upstream, manager, event);
+  }
+
+  @Override public MaybeSource<T> apply(Maybe<T> upstream) {
+    return new MaybeUntilLifeEvent<>(upstream, manager, event);
+  }
+
+  @Override public CompletableSource apply(Completable upstream) {
+    return new CompletableUntilLifeEvent(upstream, manager, event, completableMode);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    LifeEventTransformer<?> that = (LifeEventTransformer<?>) o;
+
+    return manager == that.manager
+        && event == that.event
+        && completableMode == that.completableMode;
+  }
+
+  @Override public int hashCode() {
+    int result = 31 * System.identityHashCode(manager) + event.hashCode();
+    return 31 * result + completableMode.hashCode();
+  }
+
+  @Override public String toString() {
+    return getClass().getSimpleName() + "{" + "event=" + event
+        + ", completableMode=" + completableMode + '}';
+  }
+}
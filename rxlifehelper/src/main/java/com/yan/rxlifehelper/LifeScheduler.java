@@ -0,0 +1,247 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.EmptyDisposable;
+import io.reactivex.internal.disposables.SequentialDisposable;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 包装一个 Scheduler，owner 的目标 event 发生时 dispose 所有 worker，
+ * 已经排队或延时中的任务直接丢弃不再执行，之后再提交的任务也不会执行。
+ * 通过 {@link RxLifeHelper#scheduler(LifecycleOwner, Scheduler, Lifecycle.Event)} 创建
+ *
+ * {@link #skippedCount()} 为因生命周期结束而没有执行的任务个数，同时上报给 tracer
+ */
+public final class LifeScheduler extends Scheduler {
+  private final Scheduler delegate;
+  private final WeakReference<LifecycleOwner> ownerRef;
+  private final Lifecycle.Event event;
+  private final Set<LifeWorker> workers =
+      Collections.newSetFromMap(new ConcurrentHashMap<LifeWorker, Boolean>());
+  private final AtomicLong skipped = new AtomicLong();
+  /**
+   * 与 worker 相同的 ACTIVE, DISPOSED, SKIPPING
+   */
+  private final AtomicInteger state = new AtomicInteger();
+  /**
+   * 挂在 manager 上的节点，shutdown 时移除
+   */
+  private volatile Disposable node;
+
+  LifeScheduler(Scheduler delegate, @Nullable LifecycleOwner owner, Lifecycle.Event event) {
+    this.delegate = delegate;
+    this.ownerRef = new WeakReference<>(owner);
+    this.event = event;
+  }
+
+  void setNode(Disposable node) {
+    this.node = node;
+    if (state.get() != LifeWorker.ACTIVE) {
+      node.dispose();
+    }
+  }
+
+  @NonNull @Override public Worker createWorker() {
+    LifeWorker worker = new LifeWorker(this, delegate.createWorker());
+    workers.add(worker);
+    // 先放入再检查，与 terminate 的先置标记再遍历配对，不会漏掉
+    int s = state.get();
+    if (s != LifeWorker.ACTIVE) {
+      worker.terminate(s == LifeWorker.SKIPPING);
+    }
+    return worker;
+  }
+
+  @Override public long now(@NonNull TimeUnit unit) {
+    return delegate.now(unit);
+  }
+
+  /**
+   * 手动结束，丢弃的任务不计入 skippedCount
+   */
+  @Override public void shutdown() {
+    terminate(false);
+  }
+
+  /**
+   * 目标 event 发生，在主线程回调
+   */
+  void onLifeEvent() {
+    terminate(true);
+  }
+
+  private void terminate(boolean byLifecycle) {
+    if (!state.compareAndSet(LifeWorker.ACTIVE,
+        byLifecycle ? LifeWorker.SKIPPING : LifeWorker.DISPOSED)) {
+      return;
+    }
+    Disposable node = this.node;
+    if (node != null) {
+      node.dispose();
+    }
+    for (LifeWorker worker : workers) {
+      worker.terminate(byLifecycle);
+    }
+  }
+
+  public boolean isTerminated() {
+    return state.get() != LifeWorker.ACTIVE;
+  }
+
+  public long skippedCount() {
+    return skipped.get();
+  }
+
+  void onSkipped(int count) {
+    if (count == 0) {
+      return;
+    }
+    skipped.addAndGet(count);
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      tracer.onTaskSkipped(ownerRef.get(), event, count, System.nanoTime());
+    }
+  }
+
+  @Override public String toString() {
+    return "LifeScheduler{"
+        + "delegate=" + delegate
+        + ", event=" + event
+        + ", terminated=" + isTerminated()
+        + ", skipped=" + skipped
+        + '}';
+  }
+
+  static final class LifeWorker extends Worker {
+    private static final int ACTIVE = 0;
+    private static final int DISPOSED = 1;
+    private static final int SKIPPING = 2;
+
+    private final LifeScheduler parent;
+    private final Worker actual;
+    private final Set<LifeTask> tasks =
+        Collections.newSetFromMap(new ConcurrentHashMap<LifeTask, Boolean>());
+    /**
+     * ACTIVE, DISPOSED 或 SKIPPING(由生命周期结束，之后提交的任务计入 skippedCount)
+     */
+    private final AtomicInteger state = new AtomicInteger();
+
+    LifeWorker(LifeScheduler parent, Worker actual) {
+      this.parent = parent;
+      this.actual = actual;
+    }
+
+    @NonNull @Override
+    public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+      int s = state.get();
+      if (s != ACTIVE) {
+        if (s == SKIPPING) {
+          parent.onSkipped(1);
+        }
+        return EmptyDisposable.INSTANCE;
+      }
+      LifeTask task = new LifeTask(this, run);
+      tasks.add(task);
+      // 先放入再检查，terminate 遍历时没看到的任务在这里丢弃
+      s = state.get();
+      if (s != ACTIVE) {
+        if (task.skip() && s == SKIPPING) {
+          parent.onSkipped(1);
+        }
+        return EmptyDisposable.INSTANCE;
+      }
+      task.upstream.replace(actual.schedule(task, delay, unit));
+      return task;
+    }
+
+    @Override public long now(@NonNull TimeUnit unit) {
+      return actual.now(unit);
+    }
+
+    void terminate(boolean byLifecycle) {
+      if (!state.compareAndSet(ACTIVE, byLifecycle ? SKIPPING : DISPOSED)) {
+        return;
+      }
+      parent.workers.remove(this);
+      actual.dispose();
+      int count = 0;
+      for (LifeTask task : tasks) {
+        if (task.skip()) {
+          count++;
+        }
+      }
+      tasks.clear();
+      if (byLifecycle) {
+        parent.onSkipped(count);
+      }
+    }
+
+    @Override public void dispose() {
+      terminate(false);
+    }
+
+    @Override public boolean isDisposed() {
+      return state.get() != ACTIVE;
+    }
+  }
+
+  /**
+   * 0 等待执行，1 已开始执行，2 已丢弃或被 dispose
+   */
+  static final class LifeTask extends AtomicInteger implements Runnable, Disposable {
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final LifeWorker worker;
+    private final Runnable run;
+    /**
+     * delegate 返回的 Disposable，丢弃时一起 dispose 以释放排队或延时中的任务
+     */
+    final SequentialDisposable upstream = new SequentialDisposable();
+
+    LifeTask(LifeWorker worker, Runnable run) {
+      this.worker = worker;
+      this.run = run;
+    }
+
+    @Override public void run() {
+      if (compareAndSet(PENDING, STARTED)) {
+        worker.tasks.remove(this);
+        run.run();
+      }
+    }
+
+    /**
+     * @return 是否由这次调用丢弃
+     */
+    boolean skip() {
+      if (compareAndSet(PENDING, CANCELLED)) {
+        upstream.dispose();
+        return true;
+      }
+      return false;
+    }
+
+    @Override public void dispose() {
+      if (skip()) {
+        worker.tasks.remove(this);
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return get() != PENDING;
+    }
+  }
+}
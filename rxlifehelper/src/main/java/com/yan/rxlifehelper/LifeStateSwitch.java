@@ -0,0 +1,119 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 跟随 owner 的状态在 state 上下切换，每次越过 state 回调一次
+ *
+ * 同一时刻只有一个节点挂在 manager 上：不低于 state 时挂在下沿 event，否则挂在上沿 event，
+ * 节点触发后重新按当前状态挂节点。回调经过 wip 串行，订阅线程和主线程的切换不会交错
+ */
+abstract class LifeStateSwitch {
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.State state;
+  private final StateNode whenBelow;
+  private final StateNode whenAtLeast;
+  private final AtomicInteger wip = new AtomicInteger();
+  private volatile boolean stopped;
+
+  LifeStateSwitch(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.State state) {
+    this.manager = manager;
+    this.state = state;
+    whenBelow = new StateNode(manager, downEvent(state), this);
+    whenAtLeast = new StateNode(manager, upEvent(state), this);
+  }
+
+  /**
+   * 按当前状态回调一次 onAtLeast 或 onBelow
+   */
+  final void start() {
+    update();
+  }
+
+  final void stop() {
+    stopped = true;
+    manager.removeNode(whenBelow);
+    manager.removeNode(whenAtLeast);
+  }
+
+  private void update() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    do {
+      if (stopped) {
+        return;
+      }
+      Lifecycle.State current = manager.addStateNode(state, whenBelow, whenAtLeast);
+      if (stopped) {
+        manager.removeNode(whenBelow);
+        manager.removeNode(whenAtLeast);
+        return;
+      }
+      if (current == Lifecycle.State.DESTROYED) {
+        onDestroyed();
+      } else if (current.isAtLeast(state)) {
+        onAtLeast();
+      } else {
+        onBelow();
+      }
+    } while (wip.decrementAndGet() != 0);
+  }
+
+  abstract void onAtLeast();
+
+  abstract void onBelow();
+
+  abstract void onDestroyed();
+
+  /**
+   * 低于 state 的 event
+   */
+  static Lifecycle.Event downEvent(Lifecycle.State state) {
+    switch (state) {
+      case CREATED:
+        return Lifecycle.Event.ON_DESTROY;
+      case STARTED:
+        return Lifecycle.Event.ON_STOP;
+      case RESUMED:
+        return Lifecycle.Event.ON_PAUSE;
+      default:
+        throw new IllegalArgumentException("state must be CREATED, STARTED or RESUMED: " + state);
+    }
+  }
+
+  /**
+   * 达到 state 的 event
+   */
+  static Lifecycle.Event upEvent(Lifecycle.State state) {
+    switch (state) {
+      case CREATED:
+        return Lifecycle.Event.ON_CREATE;
+      case STARTED:
+        return Lifecycle.Event.ON_START;
+      case RESUMED:
+        return Lifecycle.Event.ON_RESUME;
+      default:
+        throw new IllegalArgumentException("state must be CREATED, STARTED or RESUMED: " + state);
+    }
+  }
+
+  private static final class StateNode extends LifeEventNode {
+    private final LifeStateSwitch stateSwitch;
+
+    StateNode(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event,
+        LifeStateSwitch stateSwitch) {
+      super(manager, event);
+      this.stateSwitch = stateSwitch;
+    }
+
+    @Override void onLifeEvent() {
+      stateSwitch.update();
+    }
+
+    @Override boolean traced() {
+      return false;
+    }
+  }
+}
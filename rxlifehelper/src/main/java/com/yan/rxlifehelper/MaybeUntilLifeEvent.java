@@ -0,0 +1,90 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.MaybeSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 等价于 takeUntil(lifecycle.filter(event).firstElement())，目标 event 发生时取消上游并 onComplete
+ */
+final class MaybeUntilLifeEvent<T> extends Maybe<T> {
+  private final MaybeSource<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.Event event;
+
+  MaybeUntilLifeEvent(MaybeSource<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.Event event) {
+    this.source = source;
+    this.manager = manager;
+    this.event = event;
+  }
+
+  @Override protected void subscribeActual(MaybeObserver<? super T> observer) {
+    UntilEventObserver<T> parent = new UntilEventObserver<>(observer, manager, event);
+    observer.onSubscribe(parent);
+    if (!parent.register()) {
+      parent.onLifeEvent();
+      return;
+    }
+    source.subscribe(parent);
+  }
+
+  static final class UntilEventObserver<T> extends LifeEventNode
+      implements MaybeObserver<T>, Disposable {
+    private final MaybeObserver<? super T> downstream;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+    UntilEventObserver(MaybeObserver<? super T> downstream,
+        RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event) {
+      super(manager, event);
+      this.downstream = downstream;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override public void onSuccess(T t) {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onSuccess(t);
+      }
+    }
+
+    @Override public void onError(Throwable e) {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onError(e);
+      } else {
+        RxJavaPlugins.onError(e);
+      }
+    }
+
+    @Override public void onComplete() {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onComplete();
+      }
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(upstream);
+      unregister();
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(upstream.get());
+    }
+
+    @Override void onLifeEvent() {
+      if (DisposableHelper.dispose(upstream)) {
+        downstream.onComplete();
+      }
+    }
+  }
+}
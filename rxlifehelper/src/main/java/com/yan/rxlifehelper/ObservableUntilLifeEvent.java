@@ -0,0 +1,84 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.util.AtomicThrowable;
+import io.reactivex.internal.util.HalfSerializer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 等价于 takeUntil(lifecycle.filter(event))，目标 event 发生时取消上游并 onComplete
+ */
+final class ObservableUntilLifeEvent<T> extends Observable<T> {
+  private final ObservableSource<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.Event event;
+
+  ObservableUntilLifeEvent(ObservableSource<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.Event event) {
+    this.source = source;
+    this.manager = manager;
+    this.event = event;
+  }
+
+  @Override protected void subscribeActual(Observer<? super T> observer) {
+    UntilEventObserver<T> parent = new UntilEventObserver<>(observer, manager, event);
+    observer.onSubscribe(parent);
+    if (!parent.register()) {
+      parent.onLifeEvent();
+      return;
+    }
+    source.subscribe(parent);
+  }
+
+  static final class UntilEventObserver<T> extends LifeEventNode implements Observer<T>, Disposable {
+    private final Observer<? super T> downstream;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicThrowable error = new AtomicThrowable();
+
+    UntilEventObserver(Observer<? super T> downstream, RxLifeHelper.InnerLifeCycleManager manager,
+        Lifecycle.Event event) {
+      super(manager, event);
+      this.downstream = downstream;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override public void onNext(T t) {
+      HalfSerializer.onNext(downstream, t, wip, error);
+    }
+
+    @Override public void onError(Throwable e) {
+      unregister();
+      HalfSerializer.onError(downstream, e, wip, error);
+    }
+
+    @Override public void onComplete() {
+      unregister();
+      HalfSerializer.onComplete(downstream, wip, error);
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(upstream);
+      unregister();
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(upstream.get());
+    }
+
+    @Override void onLifeEvent() {
+      if (DisposableHelper.dispose(upstream)) {
+        HalfSerializer.onComplete(downstream, wip, error);
+      }
+    }
+  }
+}
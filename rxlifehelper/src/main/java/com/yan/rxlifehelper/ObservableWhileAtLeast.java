@@ -0,0 +1,165 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.observers.SerializedObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 状态不低于 state 时订阅上游，低于时取消，重新达到时再次订阅，owner 销毁时结束
+ *
+ * 有 resume 且收到过数据时，重新订阅 resume(最后一个数据) 返回的流
+ */
+final class ObservableWhileAtLeast<T> extends Observable<T> {
+  private final ObservableSource<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.State state;
+  private final Function<? super T, ? extends ObservableSource<? extends T>> resume;
+
+  ObservableWhileAtLeast(ObservableSource<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.State state, Function<? super T, ? extends ObservableSource<? extends T>> resume) {
+    this.source = source;
+    this.manager = manager;
+    this.state = state;
+    this.resume = resume;
+  }
+
+  @Override protected void subscribeActual(Observer<? super T> observer) {
+    // 旧的上游取消后可能还在发数据，与新的上游一起串行
+    SerializedObserver<T> serialized = new SerializedObserver<>(observer);
+    WhileAtLeastObserver<T> parent =
+        new WhileAtLeastObserver<>(serialized, source, manager, state, resume);
+    serialized.onSubscribe(parent);
+    parent.stateSwitch.start();
+  }
+
+  static final class WhileAtLeastObserver<T> implements Disposable {
+    private final Observer<? super T> downstream;
+    private final ObservableSource<T> source;
+    private final Function<? super T, ? extends ObservableSource<? extends T>> resume;
+    /**
+     * 当前的上游，低于 state 时为 null
+     */
+    private final AtomicReference<Disposable> current = new AtomicReference<>();
+    private volatile T last;
+    final LifeStateSwitch stateSwitch;
+
+    WhileAtLeastObserver(Observer<? super T> downstream, ObservableSource<T> source,
+        RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.State state,
+        Function<? super T, ? extends ObservableSource<? extends T>> resume) {
+      this.downstream = downstream;
+      this.source = source;
+      this.resume = resume;
+      stateSwitch = new LifeStateSwitch(manager, state) {
+        @Override void onAtLeast() {
+          subscribeNext();
+        }
+
+        @Override void onBelow() {
+          DisposableHelper.set(current, null);
+        }
+
+        @Override void onDestroyed() {
+          if (DisposableHelper.dispose(current)) {
+            stop();
+            WhileAtLeastObserver.this.downstream.onComplete();
+          }
+        }
+      };
+    }
+
+    private void subscribeNext() {
+      InnerObserver<T> inner = new InnerObserver<>(this);
+      if (!DisposableHelper.set(current, inner)) {
+        return;
+      }
+      ObservableSource<? extends T> next = source;
+      T value = last;
+      if (resume != null && value != null) {
+        try {
+          next = ObjectHelper.requireNonNull(resume.apply(value),
+              "The resume function returned a null ObservableSource");
+        } catch (Throwable ex) {
+          Exceptions.throwIfFatal(ex);
+          innerError(inner, ex);
+          return;
+        }
+      }
+      next.subscribe(inner);
+    }
+
+    void innerNext(InnerObserver<T> inner, T value) {
+      if (current.get() == inner) {
+        last = value;
+        downstream.onNext(value);
+      }
+    }
+
+    void innerError(InnerObserver<T> inner, Throwable e) {
+      if (current.compareAndSet(inner, DisposableHelper.DISPOSED)) {
+        stateSwitch.stop();
+        downstream.onError(e);
+      } else {
+        RxJavaPlugins.onError(e);
+      }
+    }
+
+    void innerComplete(InnerObserver<T> inner) {
+      if (current.compareAndSet(inner, DisposableHelper.DISPOSED)) {
+        stateSwitch.stop();
+        downstream.onComplete();
+      }
+    }
+
+    @Override public void dispose() {
+      if (DisposableHelper.dispose(current)) {
+        stateSwitch.stop();
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(current.get());
+    }
+  }
+
+  static final class InnerObserver<T> extends AtomicReference<Disposable>
+      implements Observer<T>, Disposable {
+    private final WhileAtLeastObserver<T> parent;
+
+    InnerObserver(WhileAtLeastObserver<T> parent) {
+      this.parent = parent;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(this, d);
+    }
+
+    @Override public void onNext(T value) {
+      parent.innerNext(this, value);
+    }
+
+    @Override public void onError(Throwable e) {
+      parent.innerError(this, e);
+    }
+
+    @Override public void onComplete() {
+      parent.innerComplete(this);
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(this);
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(get());
+    }
+  }
+}
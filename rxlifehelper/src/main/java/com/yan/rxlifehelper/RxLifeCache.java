@@ -0,0 +1,158 @@
+package com.yan.rxlifehelper;
+
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 tag 缓存 Single、Maybe 的结果，容量满了按 LRU 淘汰，可以设置过期时间
+ *
+ * 进程级缓存见 {@link RxLifeHelper#processCache()}，owner 级缓存见 {@link RxLifeHelper#cacheOf}，
+ * 在指定 event 时清空。同一个 tag 同时未命中时都会请求上游，需要合并时配合 shareByTag 使用
+ */
+public final class RxLifeCache {
+  /**
+   * 不过期
+   */
+  public static final long NO_TTL = 0;
+  static final int DEFAULT_MAX_SIZE = 64;
+
+  /**
+   * 按访问顺序排列的 LRU，以自身加锁访问
+   */
+  private final LinkedHashMap<String, Entry> entries;
+  private final Clock clock;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  private RxLifeCache(final int maxSize, Clock clock) {
+    this.clock = clock;
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maxSize) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public static RxLifeCache create(int maxSize) {
+    return create(maxSize, Clock.ELAPSED_REALTIME);
+  }
+
+  static RxLifeCache create(int maxSize, Clock clock) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+    }
+    return new RxLifeCache(maxSize, clock);
+  }
+
+  /**
+   * @return 没有或已经过期时为 null
+   */
+  @Nullable Object get(String tag) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(tag);
+      if (entry != null && entry.isExpired(clock.millis())) {
+        entries.remove(tag);
+        evictions.incrementAndGet();
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.value;
+  }
+
+  void put(String tag, Object value, long ttlMillis) {
+    long expireAt = ttlMillis > 0 ? clock.millis() + ttlMillis : 0;
+    synchronized (entries) {
+      entries.put(tag, new Entry(value, expireAt));
+    }
+  }
+
+  public void remove(String tag) {
+    synchronized (entries) {
+      entries.remove(tag);
+    }
+  }
+
+  /**
+   * 清空的数据计入 {@link #evictionCount()}
+   */
+  public void clear() {
+    synchronized (entries) {
+      evictions.addAndGet(entries.size());
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long hitCount() {
+    return hits.get();
+  }
+
+  public long missCount() {
+    return misses.get();
+  }
+
+  /**
+   * 容量淘汰、过期和 clear 移除的个数
+   */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  @Override public String toString() {
+    return "RxLifeCache{"
+        + "size=" + size()
+        + ", hits=" + hitCount()
+        + ", misses=" + missCount()
+        + ", evictions=" + evictionCount()
+        + '}';
+  }
+
+  /**
+   * 过期时间使用的时钟，测试中替换
+   */
+  interface Clock {
+    Clock ELAPSED_REALTIME = new Clock() {
+      @Override public long millis() {
+        return SystemClock.elapsedRealtime();
+      }
+    };
+
+    long millis();
+  }
+
+  private static final class Entry {
+    final Object value;
+    /**
+     * 0 表示不过期
+     */
+    final long expireAt;
+
+    Entry(Object value, long expireAt) {
+      this.value = value;
+      this.expireAt = expireAt;
+    }
+
+    boolean isExpired(long now) {
+      return expireAt != 0 && now >= expireAt;
+    }
+  }
+}
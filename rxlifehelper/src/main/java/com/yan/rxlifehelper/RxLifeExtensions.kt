@@ -9,13 +9,20 @@ import io.reactivex.Single
 import io.reactivex.SingleEmitter
 import io.reactivex.SingleObserver
 import io.reactivex.disposables.Disposable
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.CoroutineExceptionHandler
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withContext
 import kotlin.coroutines.CoroutineContext
 import kotlin.coroutines.resume
 import kotlin.coroutines.resumeWithException
@@ -43,15 +50,78 @@ fun <T> LifecycleOwner.launchUntilEvent(
     context: CoroutineContext = Dispatchers.Main,
     event: Event = ON_DESTROY,
     exHandler: ((Throwable) -> Unit)? = null,
-    loader: suspend CoroutineScope.() -> T): Job = innerLaunchUntil(context,
-    exHandler, RxLifeHelper.bindLifeOwnerUntilEvent(this, event), loader)
+    loader: suspend CoroutineScope.() -> T): Job = innerLaunch(context, exHandler, loader)
+    .cancelAtEvent(this, event)
 
+/**
+ * event 发生时取消，直接挂在 owner 的生命周期管理上，不经过 Rx 订阅
+ */
+fun Job.cancelAtEvent(owner: LifecycleOwner, event: Event = ON_DESTROY): Job {
+  val job = this
+  val node = RxLifeHelper.doOnLifeEvent(owner, event, Runnable { job.cancel() })
+  invokeOnCompletion { node.dispose() }
+  return this
+}
 
-private fun <T> innerLaunchUntil(context: CoroutineContext = Dispatchers.Main,
-    exHandler: ((Throwable) -> Unit)? = null,
-    transformer: LifecycleTransformer<Any>,
+/**
+ * event 发生时 dispose，见 RxLifeHelper.autoDispose
+ */
+fun Disposable.autoDispose(owner: LifecycleOwner, event: Event = ON_DESTROY): Disposable =
+    RxLifeHelper.autoDispose(this, owner, event)
+
+/**
+ * sendFilterTag(tag) 时取消，与 bindFilterTag 一致
+ */
+fun Job.cancelByTag(tag: String, disposeBefore: Boolean = true): Job {
+  val job = this
+  val disposable = RxLifeHelper.doOnFilterTag(tag, disposeBefore, Runnable { job.cancel() })
+  invokeOnCompletion { disposable.dispose() }
+  return this
+}
+
+/**
+ * event 发生时取消的 scope, 其中一个子协程失败不影响其他子协程
+ */
+fun LifecycleOwner.scopeUntilEvent(event: Event = ON_DESTROY,
+    context: CoroutineContext = Dispatchers.Main): CoroutineScope =
+    CoroutineScope(SupervisorJob().cancelAtEvent(this, event) + context)
+
+/**
+ * sendFilterTag(tag) 时取消的 scope
+ */
+fun filterTagScope(tag: String, disposeBefore: Boolean = true,
+    context: CoroutineContext = Dispatchers.Main): CoroutineScope =
+    CoroutineScope(SupervisorJob().cancelByTag(tag, disposeBefore) + context)
+
+/**
+ * event 发生时停止收集，与 bindLifeOwnerUntilEvent 一致，下游正常结束。
+ * 收集可以在任意 dispatcher 上，挂到 owner 的生命周期管理上固定切到主线程执行
+ */
+fun <T> Flow<T>.bindUntil(owner: LifecycleOwner, event: Event = ON_DESTROY): Flow<T> {
+  val upstream = this
+  return flow {
+    try {
+      coroutineScope {
+        val job = coroutineContext[Job]!!
+        withContext(Dispatchers.Main.immediate) {
+          val node = RxLifeHelper.doOnLifeEvent(owner, event,
+              Runnable { job.cancel(LifeEventCancellationException()) })
+          // 挂在 job 上移除，切回原 dispatcher 前被取消也不会漏掉
+          job.invokeOnCompletion { node.dispose() }
+        }
+        upstream.collect { emit(it) }
+      }
+    } catch (e: LifeEventCancellationException) {
+      // 生命周期结束，正常完成
+    }
+  }
+}
+
+private class LifeEventCancellationException : CancellationException("lifecycle event")
+
+private fun <T> innerLaunch(context: CoroutineContext,
+    exHandler: ((Throwable) -> Unit)?,
     loader: suspend CoroutineScope.() -> T): Job {
-  var emitter: SingleEmitter<Any>? = null
   val handler = CoroutineExceptionHandler { _, _ -> }
   val job = GlobalScope.launch(handler + context) { loader() }
   job.invokeOnCompletion { e ->
@@ -59,6 +129,17 @@ private fun <T> innerLaunchUntil(context: CoroutineContext = Dispatchers.Main,
       it.printStackTrace()
       exHandler?.invoke(it)
     }
+  }
+  return job
+}
+
+private fun <T> innerLaunchUntil(context: CoroutineContext = Dispatchers.Main,
+    exHandler: ((Throwable) -> Unit)? = null,
+    transformer: LifecycleTransformer<Any>,
+    loader: suspend CoroutineScope.() -> T): Job {
+  var emitter: SingleEmitter<Any>? = null
+  val job = innerLaunch(context, exHandler, loader)
+  job.invokeOnCompletion {
     if (emitter?.isDisposed == false) emitter?.onSuccess(1)
   }
 
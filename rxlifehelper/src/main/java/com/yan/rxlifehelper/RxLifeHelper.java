@@ -7,17 +7,29 @@ import android.util.Log;
 import android.view.View;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.ViewModelStoreOwner;
+import com.yan.rxlifehelper.lifeobervable.FrameClock;
+import com.yan.rxlifehelper.lifeobervable.LiveBufferPolicy;
 import io.reactivex.Observable;
-import io.reactivex.functions.Predicate;
-import io.reactivex.subjects.BehaviorSubject;
-import io.reactivex.subjects.PublishSubject;
-import java.util.HashMap;
+import io.reactivex.ObservableSource;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import org.reactivestreams.Publisher;
+
+import static com.yan.rxlifehelper.Preconditions.checkNotNull;
 
 /**
  * 基于 rxlifecycle
@@ -28,14 +40,72 @@ import java.util.HashMap;
  * @author yanxianwei
  */
 public class RxLifeHelper {
-  public static boolean withLog = false;
-  private static volatile HashMap<LifecycleOwner, InnerLifeCycleManager> TAG_LIFECYCLE_MAP =
-      new HashMap<>();
+  /**
+   * @deprecated 使用 {@link #setTracer(RxLifeHelperTracer)}
+   */
+  @Deprecated public static boolean withLog = false;
+  /**
+   * 没有安装时为 null，各处读取一次判空
+   */
+  static volatile RxLifeHelperTracer tracer;
+  /**
+   * owner 弱引用，未走到 ON_DESTROY 的 owner 也不会被这里持有
+   */
+  private static final WeakOwnerMap<LifecycleOwner, InnerLifeCycleManager> TAG_LIFECYCLE_MAP =
+      new WeakOwnerMap<>();
+
+  /**
+   * 处理tag 发送事件形式的绑定处理, 按 tag 索引
+   */
+  private static final TagRegistry TAG_REGISTRY = new TagRegistry();
+  private static final TagShareRegistry TAG_SHARES = new TagShareRegistry(TAG_REGISTRY);
+  /**
+   * tag 的代数，bindLatestTag 的流每次订阅加一，最后一个订阅结束时移除
+   */
+  private static final TagGenerations TAG_GENERATIONS = new TagGenerations();
+  private static final long DEFAULT_GRACE_PERIOD_MILLIS = 5000;
+  private static final long DEFAULT_PARK_TIMEOUT_MILLIS = 10000;
+  private static final RxLifeCache PROCESS_CACHE =
+      RxLifeCache.create(RxLifeCache.DEFAULT_MAX_SIZE);
+
+  /**
+   * 安装观测回调，传 null 移除
+   */
+  public static void setTracer(@Nullable RxLifeHelperTracer tracer) {
+    RxLifeHelper.tracer = tracer;
+  }
+
+  @Nullable public static RxLifeHelperTracer getTracer() {
+    return tracer;
+  }
+
+  /**
+   * live 系列在 owner 不活跃期间丢弃数据时调用
+   */
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static void traceItemDropped(LifecycleOwner lifecycleOwner) {
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      if (lifecycleOwner instanceof InnerLifeCycleManager) {
+        lifecycleOwner = ((InnerLifeCycleManager) lifecycleOwner).owner();
+      }
+      tracer.onItemDropped(lifecycleOwner, System.nanoTime());
+    }
+  }
 
   /**
-   * 处理tag 发送事件形式的绑定处理
+   * live 系列上游发生错误时调用
    */
-  private static final PublishSubject<String> TAG_EVENT_SUBJECT = PublishSubject.create();
+  @RestrictTo(RestrictTo.Scope.LIBRARY)
+  public static void traceError(LifecycleOwner lifecycleOwner, Throwable error) {
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      if (lifecycleOwner instanceof InnerLifeCycleManager) {
+        lifecycleOwner = ((InnerLifeCycleManager) lifecycleOwner).owner();
+      }
+      tracer.onError(lifecycleOwner, error, System.nanoTime());
+    }
+  }
 
   public static <T> LifecycleTransformer<T> bindFilterTag(final String tag) {
     return bindFilterTag(tag, true);
@@ -49,33 +119,103 @@ public class RxLifeHelper {
     if (disposeBefore) {
       sendFilterTag(tag);
     }
-    return RxLifecycle.bind(TAG_EVENT_SUBJECT.filter(new Predicate<String>() {
-      @Override public boolean test(String innerTag) throws Exception {
-        return tag.equals(innerTag);
-      }
-    }));
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      tracer.onBind(null, null, tag, System.nanoTime());
+    }
+    return RxLifecycle.bind(TAG_REGISTRY.observe(tag));
   }
 
+  /**
+   * 见 {@link #bindLatestTag(String, boolean)}，不取消之前的上游
+   */
+  public static <T> LifecycleTransformer<T> bindLatestTag(String tag) {
+    return bindLatestTag(tag, false);
+  }
+
+  /**
+   * 只有同一个 tag 最后一次订阅的流能分发数据，之前订阅的流的数据到达时直接丢弃并结束，
+   * 每次订阅只是一次原子加一，适合搜索联想等频繁触发的场景
+   *
+   * @param disposeBefore 同时通过 {@link #sendFilterTag(String)} 取消之前的上游
+   */
+  public static <T> LifecycleTransformer<T> bindLatestTag(String tag, boolean disposeBefore) {
+    if (tag == null) {
+      return bindErrorEvent(
+          new NullPointerException("RxLifeHelper: parameter tag can not be null"));
+    }
+    LifecycleTransformer<T> cancel = disposeBefore ? RxLifeHelper.<T>bindFilterTag(tag) : null;
+    return new LatestTagTransformer<>(TAG_GENERATIONS, tag, cancel);
+  }
+
+  /**
+   * 同一个 tag 进行中时，新的订阅共用同一个上游并收到最近的一个数据，不再重复请求；
+   * 最后一个订阅者离开或 {@link #sendFilterTag(String)} 时取消上游。
+   * 不同类型的流(Observable、Flowable、Single、Maybe、Completable)分别共用
+   */
+  public static <T> TagShareTransformer<T> shareByTag(String tag) {
+    checkNotNull(tag, "tag == null");
+    return new TagShareTransformer<>(TAG_SHARES, tag);
+  }
+
+  /**
+   * tag 可以用 "/" 分层，如 "feed/images/123"；以 "/" 结尾时取消整个分组，
+   * 如 "feed/images/" 取消 "feed/images" 及其下所有 tag，"user42/" 取消 "user42" 及其下所有 tag。
+   * 只有 "/" 时只取消 tag 恰好为 "/" 的流，不会取消所有 tag
+   */
   public static void sendFilterTag(String tag) {
-    TAG_EVENT_SUBJECT.onNext(tag);
+    TAG_REGISTRY.send(tag);
+  }
+
+  /**
+   * tag 收到 sendFilterTag 时执行 action, 协程一侧使用
+   *
+   * @return dispose 后不再执行
+   */
+  static Disposable doOnFilterTag(@NonNull String tag, boolean disposeBefore,
+      @NonNull final Runnable action) {
+    if (disposeBefore) {
+      sendFilterTag(tag);
+    }
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      tracer.onBind(null, null, tag, System.nanoTime());
+    }
+    return TAG_REGISTRY.observe(tag).subscribe(new Consumer<String>() {
+      @Override public void accept(String tag) {
+        action.run();
+      }
+    });
   }
 
   @MainThread public static <T> LifecycleTransformer<T> bindUntilViewDetach(final View view) {
     if (view == null) {
       return bindErrorEvent(new NullPointerException("view could not be null"));
     }
-    StateAttach stateAttach = (StateAttach) view.getTag(R.id.tag_view_attach);
-    if (stateAttach == null) {
-      synchronized (RxLifeHelper.class) {
-        stateAttach = (StateAttach) view.getTag(R.id.tag_view_attach);
-        if (stateAttach == null) {
-          stateAttach = new StateAttach();
-          view.addOnAttachStateChangeListener(stateAttach);
-          view.setTag(R.id.tag_view_attach, stateAttach);
-        }
-      }
+    return ViewBindState.obtain(view, R.id.tag_view_attach).bind(null);
+  }
+
+  /**
+   * 列表 item 使用，view detach、调用 {@link #recycleView(View)} 或以不同的 bindKey
+   * 重新绑定时结束
+   *
+   * @param bindKey 通常是本次绑定的数据，为 null 时不检查重新绑定
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindUntilViewRecycle(final View itemView,
+      @Nullable Object bindKey) {
+    if (itemView == null) {
+      return bindErrorEvent(new NullPointerException("view could not be null"));
+    }
+    return ViewBindState.obtain(itemView, R.id.tag_view_bind).bind(bindKey);
+  }
+
+  /**
+   * 结束 {@link #bindUntilViewRecycle(View, Object)} 绑定的流，在 onViewRecycled 中调用
+   */
+  @MainThread public static void recycleView(View itemView) {
+    if (itemView != null) {
+      ViewBindState.recycle(itemView, R.id.tag_view_bind);
     }
-    return RxLifecycle.bind(stateAttach.lifecycleSubject);
   }
 
   @MainThread public static <T> LifecycleTransformer<T> bindUntilDetach(final View view) {
@@ -120,7 +260,252 @@ public class RxLifeHelper {
     if (lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
       return bindErrorEvent(new NullPointerException("RxLifeHelper: LifecycleOwner was destroyed"));
     }
-    return RxLifecycle.bindUntilEvent(getLifeManager(lifecycleOwner).lifecycleSubject, event);
+    traceBind(lifecycleOwner, event);
+    return getLifeManager(lifecycleOwner).untilEvent(event);
+  }
+
+  /**
+   * 与 {@link #bindLifeOwnerUntilEvent(LifecycleOwner, Lifecycle.Event)} 相同，
+   * Completable 在生命周期结束时按 mode 结束，DISPOSE 和 COMPLETE 不会创建异常
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindLifeOwnerUntilEvent(
+      LifecycleOwner lifecycleOwner, Lifecycle.Event event, CompletableCancelMode mode) {
+    if (mode == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: mode could not be null"));
+    }
+    if (mode == CompletableCancelMode.ERROR) {
+      return bindLifeOwnerUntilEvent(lifecycleOwner, event);
+    }
+    if (lifecycleOwner == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: target could not be null"));
+    }
+    if (lifecycleOwner.getLifecycle() == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: lifecycle could not be null"));
+    }
+    if (lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: LifecycleOwner was destroyed"));
+    }
+    checkNotNull(event, "event == null");
+    traceBind(lifecycleOwner, event);
+    return new LifeEventTransformer<>(getLifeManager(lifecycleOwner), event, mode);
+  }
+
+  /**
+   * 状态低于 state 时取消上游，重新达到 state 时再次订阅上游，owner 销毁时结束，
+   * 用于定位、长连接、轮询等只在前台需要的流。只有 Observable 和 Flowable 会重新订阅
+   *
+   * @param state CREATED、STARTED 或 RESUMED
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindWhileAtLeast(
+      LifecycleOwner lifecycleOwner, Lifecycle.State state) {
+    return bindWhileAtLeast(lifecycleOwner, state, null, null);
+  }
+
+  /**
+   * @param resume 收到过数据时，重新订阅 resume(最后一个数据) 返回的流，从停下的地方继续
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindWhileAtLeast(
+      LifecycleOwner lifecycleOwner, Lifecycle.State state,
+      Function<? super T, ? extends ObservableSource<? extends T>> resume) {
+    if (resume == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: resume could not be null"));
+    }
+    return bindWhileAtLeast(lifecycleOwner, state, resume, null);
+  }
+
+  /**
+   * Flowable 使用, 见 {@link #bindWhileAtLeast(LifecycleOwner, Lifecycle.State, Function)}
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindFlowableWhileAtLeast(
+      LifecycleOwner lifecycleOwner, Lifecycle.State state,
+      Function<? super T, ? extends Publisher<? extends T>> resume) {
+    if (resume == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: resume could not be null"));
+    }
+    return bindWhileAtLeast(lifecycleOwner, state, null, resume);
+  }
+
+  private static <T> LifecycleTransformer<T> bindWhileAtLeast(LifecycleOwner lifecycleOwner,
+      Lifecycle.State state,
+      Function<? super T, ? extends ObservableSource<? extends T>> observableResume,
+      Function<? super T, ? extends Publisher<? extends T>> flowableResume) {
+    if (state == null || state == Lifecycle.State.DESTROYED
+        || state == Lifecycle.State.INITIALIZED) {
+      return bindErrorEvent(new IllegalArgumentException(
+          "RxLifeHelper: state must be CREATED, STARTED or RESUMED but it was " + state));
+    }
+    if (lifecycleOwner == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: target could not be null"));
+    }
+    if (lifecycleOwner.getLifecycle() == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: lifecycle could not be null"));
+    }
+    if (lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: LifecycleOwner was destroyed"));
+    }
+    traceBind(lifecycleOwner, LifeStateSwitch.downEvent(state));
+    return new WhileAtLeastTransformer<>(getLifeManager(lifecycleOwner), state, observableResume,
+        flowableResume);
+  }
+
+  /**
+   * subscribe 返回的 Disposable 在目标 event 时 dispose，不经过 takeUntil，
+   * 直接挂在 owner 的节点链表上，同一个 event 的所有节点一次摘下
+   *
+   * @return dispose 时同时 dispose 传入的 disposable 并从链表上移除
+   */
+  @MainThread public static Disposable autoDispose(Disposable disposable,
+      LifecycleOwner lifecycleOwner, Lifecycle.Event event) {
+    checkNotNull(disposable, "disposable == null");
+    checkNotNull(lifecycleOwner, "lifecycleOwner == null");
+    checkNotNull(event, "event == null");
+    if (lifecycleOwner.getLifecycle() == null
+        || lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      disposable.dispose();
+      return disposable;
+    }
+    traceBind(lifecycleOwner, event);
+    LifeEventDisposable node =
+        new LifeEventDisposable(getLifeManager(lifecycleOwner), event, disposable);
+    if (!node.register()) {
+      node.onLifeEvent();
+    }
+    return node;
+  }
+
+  /**
+   * 见 {@link #scheduler(LifecycleOwner, Scheduler, Lifecycle.Event)}，owner 销毁时结束
+   */
+  @MainThread public static LifeScheduler scheduler(LifecycleOwner lifecycleOwner,
+      Scheduler delegate) {
+    return scheduler(lifecycleOwner, delegate, Lifecycle.Event.ON_DESTROY);
+  }
+
+  /**
+   * 包装 delegate，目标 event 发生时 dispose 所有 worker，已经排队、延时中和之后提交的任务
+   * 都不再执行，例如快速返回后仍在 io 线程池排队的请求。丢弃的个数见
+   * {@link LifeScheduler#skippedCount()}，同时上报给 tracer
+   */
+  @MainThread public static LifeScheduler scheduler(LifecycleOwner lifecycleOwner,
+      Scheduler delegate, Lifecycle.Event event) {
+    checkNotNull(lifecycleOwner, "lifecycleOwner == null");
+    checkNotNull(delegate, "delegate == null");
+    checkNotNull(event, "event == null");
+    final LifeScheduler scheduler = new LifeScheduler(delegate, lifecycleOwner, event);
+    scheduler.setNode(
+        doOnLifeEvent(lifecycleOwner, event, new Runnable() {
+          @Override public void run() {
+            scheduler.onLifeEvent();
+          }
+        }));
+    return scheduler;
+  }
+
+  /**
+   * 共享的 {@link ForegroundScheduler} 上标记为 owner 的 Scheduler，owner 处于 RESUMED 时优先执行，
+   * ON_STOP 之后暂缓到重新 ON_START，最多暂缓 {@value #DEFAULT_PARK_TIMEOUT_MILLIS} 毫秒。
+   * 需要其他线程数或暂缓时间时使用 {@link ForegroundScheduler#create(int, long)}
+   */
+  @MainThread public static Scheduler foregroundScheduler(LifecycleOwner lifecycleOwner) {
+    checkNotNull(lifecycleOwner, "lifecycleOwner == null");
+    return ForegroundHolder.SCHEDULER.forOwner(lifecycleOwner);
+  }
+
+  /**
+   * 进程级缓存，容量 {@value RxLifeCache#DEFAULT_MAX_SIZE}，需要其他容量时使用
+   * {@link RxLifeCache#create(int)} 和 {@link #bindCached(RxLifeCache, String, long)}
+   */
+  public static RxLifeCache processCache() {
+    return PROCESS_CACHE;
+  }
+
+  /**
+   * owner 级缓存，目标 event 发生时清空
+   */
+  @MainThread public static RxLifeCache cacheOf(LifecycleOwner lifecycleOwner,
+      Lifecycle.Event event) {
+    checkNotNull(lifecycleOwner, "lifecycleOwner == null");
+    checkNotNull(event, "event == null");
+    if (lifecycleOwner.getLifecycle() == null
+        || lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      // 已经销毁，不再保存
+      return RxLifeCache.create(RxLifeCache.DEFAULT_MAX_SIZE);
+    }
+    return getLifeManager(lifecycleOwner).cache(event);
+  }
+
+  /**
+   * 命中时直接返回缓存的结果，不订阅上游，owner 销毁时清空，只支持 Single 和 Maybe
+   *
+   * @param ttlMillis 过期时间，{@link RxLifeCache#NO_TTL} 不过期，不能为负数
+   */
+  @MainThread public static <T> CachedTransformer<T> bindCached(LifecycleOwner lifecycleOwner,
+      String tag, long ttlMillis) {
+    return bindCached(cacheOf(lifecycleOwner, Lifecycle.Event.ON_DESTROY), tag, ttlMillis);
+  }
+
+  /**
+   * 使用进程级缓存
+   */
+  public static <T> CachedTransformer<T> bindCached(String tag, long ttlMillis) {
+    return bindCached(PROCESS_CACHE, tag, ttlMillis);
+  }
+
+  public static <T> CachedTransformer<T> bindCached(RxLifeCache cache, String tag,
+      long ttlMillis) {
+    checkNotNull(cache, "cache == null");
+    checkNotNull(tag, "tag == null");
+    if (ttlMillis < 0) {
+      throw new IllegalArgumentException("ttlMillis >= 0 required but it was " + ttlMillis);
+    }
+    return new CachedTransformer<>(cache, tag, ttlMillis);
+  }
+
+  /**
+   * 见 {@link #shareWhileSubscribed(ViewModelStoreOwner, String, long)}，保留 5 秒
+   */
+  @MainThread public static <T> SharedStreamTransformer<T> shareWhileSubscribed(
+      ViewModelStoreOwner owner, String key) {
+    return shareWhileSubscribed(owner, key, DEFAULT_GRACE_PERIOD_MILLIS);
+  }
+
+  /**
+   * 按 key 共享上游，保存在 owner 的 ViewModelStore 里，旋转屏幕等配置变化重建时保留。
+   * 最后一个订阅者离开后再保留 gracePeriodMillis，期间新的页面订阅时直接接上原来的上游并收到
+   * 最近的一个数据，不会重新请求；owner 真正结束时立即取消。
+   * 订阅者自身仍需绑定生命周期，例如之后再 compose(bindLifeOwnerUntilEvent(..))
+   */
+  @MainThread public static <T> SharedStreamTransformer<T> shareWhileSubscribed(
+      ViewModelStoreOwner owner, String key, long gracePeriodMillis) {
+    checkNotNull(owner, "owner == null");
+    checkNotNull(key, "key == null");
+    if (gracePeriodMillis < 0) {
+      throw new IllegalArgumentException(
+          "gracePeriodMillis >= 0 required but it was " + gracePeriodMillis);
+    }
+    return new SharedStreamTransformer<>(SharedStreamHolder.of(owner), key, gracePeriodMillis);
+  }
+
+  /**
+   * 目标 event 发生时执行 action, 目标 event 已经发生过或 owner 已经销毁时直接执行，
+   * 协程一侧使用, 与 Rx 绑定共用同一个 manager
+   *
+   * @return dispose 后不再执行
+   */
+  @MainThread static Disposable doOnLifeEvent(@NonNull LifecycleOwner lifecycleOwner,
+      @NonNull Lifecycle.Event event, @NonNull Runnable action) {
+    checkNotNull(event, "event == null");
+    if (lifecycleOwner.getLifecycle() == null
+        || lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+      action.run();
+      return Disposables.disposed();
+    }
+    traceBind(lifecycleOwner, event);
+    LifeEventAction node = new LifeEventAction(getLifeManager(lifecycleOwner), event, action);
+    if (!node.register()) {
+      node.onLifeEvent();
+    }
+    return node;
   }
 
   ///////////////////////////////////// live data ///////////////////////////////////////////
@@ -148,8 +533,39 @@ public class RxLifeHelper {
     return bindLifeLiveOwnerUntilEvent((LifecycleOwner) target, event);
   }
 
+  @MainThread
+  public static <T> LifecycleTransformer<T> bindUntilLifeLiveEvent(FragmentActivity target,
+      Lifecycle.Event event, LiveBufferPolicy policy) {
+    return bindLifeLiveOwnerUntilEvent(target, event, policy);
+  }
+
+  @MainThread public static <T> LifecycleTransformer<T> bindUntilLifeLiveEvent(Fragment target,
+      Lifecycle.Event event, LiveBufferPolicy policy) {
+    return bindLifeLiveOwnerUntilEvent(target, event, policy);
+  }
+
+  @MainThread public static <T> LifecycleTransformer<T> bindUntilLifeLiveEvent(Context target,
+      Lifecycle.Event event, LiveBufferPolicy policy) {
+    if (!(target instanceof LifecycleOwner)) {
+      return bindErrorEvent(
+          new IllegalArgumentException("RxLifeHelper: target must implements LifecycleOwner"));
+    }
+    return bindLifeLiveOwnerUntilEvent((LifecycleOwner) target, event, policy);
+  }
+
   @MainThread public static <T> LifecycleTransformer<T> bindLifeLiveOwnerUntilEvent(
       LifecycleOwner lifecycleOwner, Lifecycle.Event event) {
+    return bindLifeLiveOwnerUntilEvent(lifecycleOwner, event, LiveBufferPolicy.latest());
+  }
+
+  /**
+   * @param policy owner 不活跃期间收到数据的缓存策略, 见 {@link LiveBufferPolicy}
+   */
+  @MainThread public static <T> LifecycleTransformer<T> bindLifeLiveOwnerUntilEvent(
+      LifecycleOwner lifecycleOwner, Lifecycle.Event event, LiveBufferPolicy policy) {
+    if (policy == null) {
+      return bindErrorEvent(new NullPointerException("RxLifeHelper: policy could not be null"));
+    }
     if (lifecycleOwner == null) {
       return bindErrorEvent(new NullPointerException("RxLifeHelper: target could not be null"));
     }
@@ -159,8 +575,28 @@ public class RxLifeHelper {
     if (lifecycleOwner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
       return bindErrorEvent(new NullPointerException("RxLifeHelper: LifecycleOwner was destroyed"));
     }
-    RxLifeHelper.InnerLifeCycleManager lifeCycleManager = getLifeManager(lifecycleOwner);
-    return RxLifecycle.bindUntilEvent(lifeCycleManager, lifeCycleManager.lifecycleSubject, event);
+    traceBind(lifecycleOwner, event);
+    return getLifeManager(lifecycleOwner).liveUntilEvent(event, policy);
+  }
+
+  /**
+   * 高频数据(传感器、行情等)按帧合并，每帧在主线程以 List 分发一次，
+   * 逐个分发时使用 {@link LiveBufferPolicy#withFrameClock(FrameClock)}
+   */
+  public static <T> FrameBatchTransformer<T> batchPerFrame() {
+    return batchPerFrame(FrameClock.choreographer());
+  }
+
+  public static <T> FrameBatchTransformer<T> batchPerFrame(FrameClock frameClock) {
+    checkNotNull(frameClock, "frameClock == null");
+    return new FrameBatchTransformer<>(frameClock);
+  }
+
+  private static void traceBind(LifecycleOwner lifecycleOwner, Lifecycle.Event event) {
+    RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+    if (tracer != null) {
+      tracer.onBind(lifecycleOwner, event, null, System.nanoTime());
+    }
   }
 
   static <T> LifecycleTransformer<T> bindErrorEvent(Throwable throwable) {
@@ -168,32 +604,88 @@ public class RxLifeHelper {
     return RxLifecycle.bind(Observable.error(throwable));
   }
 
+  /**
+   * 用到时才创建线程池
+   */
+  private static final class ForegroundHolder {
+    static final ForegroundScheduler SCHEDULER = ForegroundScheduler.create(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), DEFAULT_PARK_TIMEOUT_MILLIS);
+  }
+
   static InnerLifeCycleManager getLifeManager(@NonNull LifecycleOwner lifecycleOwner) {
     InnerLifeCycleManager lifeCycleManager = TAG_LIFECYCLE_MAP.get(lifecycleOwner);
     if (lifeCycleManager == null) {
-      synchronized (lifecycleOwner) {
-        lifeCycleManager = TAG_LIFECYCLE_MAP.get(lifecycleOwner);
-        if (lifeCycleManager == null) {
-          lifeCycleManager = new InnerLifeCycleManager(lifecycleOwner);
-          lifecycleOwner.getLifecycle().addObserver(lifeCycleManager);
-          TAG_LIFECYCLE_MAP.put(lifecycleOwner, lifeCycleManager);
-        }
+      InnerLifeCycleManager created = new InnerLifeCycleManager(lifecycleOwner);
+      lifeCycleManager = TAG_LIFECYCLE_MAP.putIfAbsent(lifecycleOwner, created);
+      if (lifeCycleManager == null) {
+        // 只有放入成功的 manager 才注册生命周期回调
+        lifeCycleManager = created;
+        lifecycleOwner.getLifecycle().addObserver(created);
       }
     }
     return lifeCycleManager;
   }
 
+  /**
+   * 还没有销毁也没有被回收的 owner 个数
+   */
+  static int lifeManagerCount() {
+    return TAG_LIFECYCLE_MAP.size();
+  }
+
   /**
    * 生命周期管理, 生命周期各个阶段分发
    */
   static class InnerLifeCycleManager extends GenericLifecycleObserver implements LifecycleOwner {
+    private static final Lifecycle.Event[] EVENTS = Lifecycle.Event.values();
+
+    /**
+     * 绑定的流直接以节点形式挂在这里，按目标 event 分桶(下标为 Event.ordinal())，
+     * 一次生命周期变化只会访问以该 event 结束的流。以下字段由 this 加锁访问
+     */
+    private final LifeEventNode[] buckets = new LifeEventNode[EVENTS.length];
     /**
-     * 绑定，即会发送一次最新数据
+     * 最近一次的 event, 绑定时目标 event 就是最近一次 event 会直接结束(与之前 BehaviorSubject 重放一致)
      */
-    final BehaviorSubject<Lifecycle.Event> lifecycleSubject = BehaviorSubject.create();
+    private Lifecycle.Event lastEvent;
+
+    /**
+     * transformer 与下游类型无关，每个 event 预先创建一个，重复绑定直接复用
+     */
+    private final EnumMap<Lifecycle.Event, LifecycleTransformer<?>> untilEventTransformers =
+        new EnumMap<>(Lifecycle.Event.class);
+    private final EnumMap<Lifecycle.Event, LifecycleTransformer<?>> liveUntilEventTransformers =
+        new EnumMap<>(Lifecycle.Event.class);
+
+    private final WeakReference<LifecycleOwner> ownerRef;
+    /**
+     * 按清空的 event 区分的缓存，this 加锁访问
+     */
+    private EnumMap<Lifecycle.Event, RxLifeCache> caches;
 
     InnerLifeCycleManager(LifecycleOwner source) {
-      super(source);
+      ownerRef = new WeakReference<>(source);
+      mLifecycleRegistry = new LifecycleRegistry(source);
+      for (Lifecycle.Event event : EVENTS) {
+        untilEventTransformers.put(event, new LifeEventTransformer<>(this, event));
+        liveUntilEventTransformers.put(event,
+            new LifeDataTransformer<>(this, event, LiveBufferPolicy.latest()));
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> LifecycleTransformer<T> untilEvent(Lifecycle.Event event) {
+      checkNotNull(event, "event == null");
+      return (LifecycleTransformer<T>) untilEventTransformers.get(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> LifecycleTransformer<T> liveUntilEvent(Lifecycle.Event event, LiveBufferPolicy policy) {
+      checkNotNull(event, "event == null");
+      if (policy != LiveBufferPolicy.latest()) {
+        return new LifeDataTransformer<>(this, event, policy);
+      }
+      return (LifecycleTransformer<T>) liveUntilEventTransformers.get(event);
     }
 
     @Override public void onStateChanged(LifecycleOwner source, final Lifecycle.Event event) {
@@ -201,7 +693,7 @@ public class RxLifeHelper {
         Log.e("RxLifeHelper",source+"  "+event);
       }
       mLifecycleRegistry.handleLifecycleEvent(event);
-      lifecycleSubject.onNext(event);
+      dispatchEvent(event);
       if (event == Lifecycle.Event.ON_DESTROY) {
         source.getLifecycle().removeObserver(this);
         TAG_LIFECYCLE_MAP.remove(source);
@@ -209,24 +701,244 @@ public class RxLifeHelper {
       }
     }
 
-    private LifecycleRegistry mLifecycleRegistry = new LifecycleRegistry(source);
+    /**
+     * 目标 event 发生时清空并移除，之后再取会重新创建；event 刚刚发生时同样保存，
+     * 在下一次该 event 时清空
+     */
+    RxLifeCache cache(Lifecycle.Event event) {
+      synchronized (this) {
+        if (caches == null) {
+          caches = new EnumMap<>(Lifecycle.Event.class);
+        }
+        RxLifeCache cache = caches.get(event);
+        if (cache != null) {
+          return cache;
+        }
+        RxLifeCache created = RxLifeCache.create(RxLifeCache.DEFAULT_MAX_SIZE);
+        if (lastEvent == Lifecycle.Event.ON_DESTROY) {
+          return created;
+        }
+        // 不经过 addNode: event 刚刚发生时也要挂上，等下一次该 event。
+        // 在同一把锁内挂节点和放入，event 的回调一定在放入之后
+        link(new CacheNode(this, event, created));
+        caches.put(event, created);
+        return created;
+      }
+    }
+
+    /**
+     * 目标 event 时移除并清空缓存
+     */
+    void onCacheEvent(Lifecycle.Event event, RxLifeCache cache) {
+      synchronized (this) {
+        if (caches.get(event) == cache) {
+          caches.remove(event);
+        }
+      }
+      cache.clear();
+    }
+
+    @Nullable LifecycleOwner owner() {
+      return ownerRef.get();
+    }
+
+    /**
+     * @return false 目标 event 已经发生过或 owner 已经销毁
+     */
+    boolean addNode(LifeEventNode node) {
+      synchronized (this) {
+        if (lastEvent == node.event || lastEvent == Lifecycle.Event.ON_DESTROY) {
+          return false;
+        }
+        link(node);
+        return true;
+      }
+    }
+
+    /**
+     * 在同一把锁内按当前状态挂节点，判断和挂节点之间不会漏掉 event:
+     * 不低于 state 时挂上 whenBelow(state 的下沿 event)，否则挂上 whenAtLeast(上沿 event)
+     *
+     * @return 当前状态，DESTROYED 时两个都不挂
+     */
+    Lifecycle.State addStateNode(Lifecycle.State state, LifeEventNode whenBelow,
+        LifeEventNode whenAtLeast) {
+      synchronized (this) {
+        Lifecycle.State current = currentState();
+        if (current != Lifecycle.State.DESTROYED) {
+          link(current.isAtLeast(state) ? whenBelow : whenAtLeast);
+        }
+        return current;
+      }
+    }
+
+    /**
+     * 最近一次 event，可在任意线程读取
+     */
+    @Nullable Lifecycle.Event lastEvent() {
+      synchronized (this) {
+        return lastEvent;
+      }
+    }
+
+    /**
+     * 还挂着的节点个数
+     */
+    int nodeCount() {
+      synchronized (this) {
+        int count = 0;
+        for (LifeEventNode head : buckets) {
+          for (LifeEventNode node = head; node != null; node = node.next) {
+            count++;
+          }
+        }
+        return count;
+      }
+    }
+
+    /**
+     * 由最近一次 event 推出，与 dispatchEvent 在同一把锁内更新
+     */
+    private Lifecycle.State currentState() {
+      if (lastEvent == null) {
+        return Lifecycle.State.INITIALIZED;
+      }
+      switch (lastEvent) {
+        case ON_CREATE:
+        case ON_STOP:
+          return Lifecycle.State.CREATED;
+        case ON_START:
+        case ON_PAUSE:
+          return Lifecycle.State.STARTED;
+        case ON_RESUME:
+          return Lifecycle.State.RESUMED;
+        case ON_DESTROY:
+          return Lifecycle.State.DESTROYED;
+        default:
+          return Lifecycle.State.INITIALIZED;
+      }
+    }
+
+    private void link(LifeEventNode node) {
+      int index = node.event.ordinal();
+      LifeEventNode head = buckets[index];
+      node.next = head;
+      if (head != null) {
+        head.prev = node;
+      }
+      buckets[index] = node;
+      node.linked = true;
+    }
+
+    /**
+     * @return 节点是否由这次调用移除
+     */
+    boolean removeNode(LifeEventNode node) {
+      synchronized (this) {
+        if (node.linked) {
+          unlink(node);
+          return true;
+        }
+        return false;
+      }
+    }
+
+    private void unlink(LifeEventNode node) {
+      if (node.prev != null) {
+        node.prev.next = node.next;
+      } else {
+        buckets[node.event.ordinal()] = node.next;
+      }
+      if (node.next != null) {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      node.linked = false;
+    }
+
+    /**
+     * 摘下整个桶，接在 fired 前面
+     */
+    private LifeEventNode detach(int index, LifeEventNode fired) {
+      LifeEventNode node = buckets[index];
+      buckets[index] = null;
+      while (node != null) {
+        LifeEventNode next = node.next;
+        node.prev = null;
+        node.linked = false;
+        node.next = fired;
+        fired = node;
+        node = next;
+      }
+      return fired;
+    }
+
+    /**
+     * 销毁后不会再有其他 event，等待其他 event 的节点(例如 resume 之后绑定到 ON_START 的流)
+     * 也在 ON_DESTROY 时结束，不会一直挂在已经销毁的 owner 上
+     */
+    private LifeEventNode detachAll() {
+      LifeEventNode fired = null;
+      for (int i = 0; i < buckets.length; i++) {
+        fired = detach(i, fired);
+      }
+      return fired;
+    }
+
+    private void dispatchEvent(Lifecycle.Event event) {
+      LifeEventNode fired;
+      synchronized (this) {
+        lastEvent = event;
+        if (event == Lifecycle.Event.ON_DESTROY) {
+          fired = detachAll();
+        } else {
+          // 整个桶一次摘下
+          fired = detach(event.ordinal(), null);
+        }
+      }
+      // 回调放在锁外，节点已经摘除，next 只用来串起待回调的节点
+      RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+      long eventNanos = tracer != null ? System.nanoTime() : 0;
+      while (fired != null) {
+        LifeEventNode next = fired.next;
+        fired.next = null;
+        fired.onLifeEvent();
+        if (tracer != null && fired.traced()) {
+          tracer.onDisposeByLifecycle(owner(), event, fired.subscribeNanos, eventNanos,
+              System.nanoTime());
+        }
+        fired = next;
+      }
+    }
+
+    /**
+     * LifecycleRegistry 只弱引用 owner
+     */
+    private LifecycleRegistry mLifecycleRegistry;
 
     @NonNull @Override public Lifecycle getLifecycle() {
       return mLifecycleRegistry;
     }
   }
 
-  private static class StateAttach implements View.OnAttachStateChangeListener {
-    private final PublishSubject<Boolean> lifecycleSubject = PublishSubject.create();
+  /**
+   * owner 级缓存挂在 manager 上的节点，不经过 register，不上报给 tracer
+   */
+  static final class CacheNode extends LifeEventNode {
+    private final RxLifeCache cache;
+
+    CacheNode(InnerLifeCycleManager manager, Lifecycle.Event event, RxLifeCache cache) {
+      super(manager, event);
+      this.cache = cache;
+    }
 
-    @Override public void onViewAttachedToWindow(View v) {
+    @Override void onLifeEvent() {
+      manager.onCacheEvent(event, cache);
     }
 
-    @Override public void onViewDetachedFromWindow(View v) {
-      v.removeOnAttachStateChangeListener(this);
-      lifecycleSubject.onNext(true);
-      v.setTag(R.id.tag_view_attach, null);
+    @Override boolean traced() {
+      return false;
     }
   }
 }
-
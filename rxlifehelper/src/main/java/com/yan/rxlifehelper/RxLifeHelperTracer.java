@@ -0,0 +1,68 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * 绑定过程的观测回调，通过 {@link RxLifeHelper#setTracer(RxLifeHelperTracer)} 安装，
+ * 没有安装时不会读取时间，也不会产生额外的对象
+ *
+ * 时间均为 {@link System#nanoTime()}，回调可能发生在任意线程
+ *
+ * 生命周期绑定时 tag 为 null，tag 绑定时 owner、event 为 null
+ */
+public interface RxLifeHelperTracer {
+  /**
+   * 获取了一个 transformer
+   */
+  void onBind(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long timeNanos);
+
+  /**
+   * 一个流开始订阅
+   */
+  void onSubscribe(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long timeNanos);
+
+  /**
+   * 一个流自己结束或被下游取消
+   */
+  void onUnsubscribe(@Nullable LifecycleOwner owner, @Nullable Lifecycle.Event event,
+      @Nullable String tag, long subscribeNanos, long timeNanos);
+
+  /**
+   * 一个流因为生命周期 event 被取消
+   *
+   * @param eventNanos 开始分发 event 的时间
+   * @param disposedNanos 该流取消完成的时间
+   */
+  void onDisposeByLifecycle(@Nullable LifecycleOwner owner, Lifecycle.Event event,
+      long subscribeNanos, long eventNanos, long disposedNanos);
+
+  /**
+   * 一个流因为 sendFilterTag 被取消
+   *
+   * @param sendNanos 收到 tag 的时间
+   * @param disposedNanos 该流取消完成的时间
+   */
+  void onDisposeByTag(String tag, long subscribeNanos, long sendNanos, long disposedNanos);
+
+  /**
+   * live 系列的缓存满了，丢弃了一个数据
+   */
+  void onItemDropped(@Nullable LifecycleOwner owner, long timeNanos);
+
+  /**
+   * live 系列的上游发生错误，错误仍会在 owner 活跃时分发给下游
+   */
+  void onError(@Nullable LifecycleOwner owner, Throwable error, long timeNanos);
+
+  /**
+   * {@link LifeScheduler} 因为生命周期 event 丢弃了排队中或之后提交的任务
+   *
+   * @param count 这次丢弃的任务个数
+   */
+  void onTaskSkipped(@Nullable LifecycleOwner owner, Lifecycle.Event event, int count,
+      long timeNanos);
+}
@@ -0,0 +1,111 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStoreOwner;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Action;
+import io.reactivex.subjects.CompletableSubject;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+
+/**
+ * 挂在 ViewModelStore 上，配置变化重建时保留，按 key 共享上游
+ *
+ * 最后一个订阅者离开后再保留 gracePeriod，期间重建出来的页面重新订阅时直接接上原来的上游，
+ * 并收到最近的一个数据；页面真正结束(onCleared)时立即结束所有上游
+ */
+final class SharedStreamHolder extends ViewModel {
+  private static final ViewModelProvider.Factory FACTORY = new ViewModelProvider.Factory() {
+    @Override public <T extends ViewModel> T create(Class<T> modelClass) {
+      return modelClass.cast(new SharedStreamHolder());
+    }
+  };
+
+  private final ConcurrentHashMap<String, Observable<?>> observables = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Flowable<?>> flowables = new ConcurrentHashMap<>();
+  private final CompletableSubject cleared = CompletableSubject.create();
+
+  @MainThread static SharedStreamHolder of(ViewModelStoreOwner owner) {
+    return new ViewModelProvider(owner, FACTORY).get(SharedStreamHolder.class);
+  }
+
+  <T> Observable<T> share(final String key, final Observable<T> upstream,
+      final long gracePeriodMillis) {
+    return Observable.defer(new Callable<ObservableSource<T>>() {
+      @Override public ObservableSource<T> call() {
+        return obtain(key, upstream, gracePeriodMillis);
+      }
+    });
+  }
+
+  <T> Flowable<T> share(final String key, final Flowable<T> upstream,
+      final long gracePeriodMillis) {
+    return Flowable.defer(new Callable<Publisher<T>>() {
+      @Override public Publisher<T> call() {
+        return obtain(key, upstream, gracePeriodMillis);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Observable<T> obtain(final String key, Observable<T> upstream,
+      long gracePeriodMillis) {
+    Observable<T> shared = (Observable<T>) observables.get(key);
+    if (shared != null) {
+      return shared;
+    }
+    final AtomicReference<Observable<T>> self = new AtomicReference<>();
+    Observable<T> created = upstream.takeUntil(cleared.<T>toObservable())
+        .doFinally(new Action() {
+          @Override public void run() {
+            observables.remove(key, self.get());
+          }
+        })
+        .replay(1)
+        .refCount(gracePeriodMillis, TimeUnit.MILLISECONDS);
+    self.set(created);
+    shared = (Observable<T>) observables.putIfAbsent(key, created);
+    return shared != null ? shared : created;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Flowable<T> obtain(final String key, Flowable<T> upstream,
+      long gracePeriodMillis) {
+    Flowable<T> shared = (Flowable<T>) flowables.get(key);
+    if (shared != null) {
+      return shared;
+    }
+    final AtomicReference<Flowable<T>> self = new AtomicReference<>();
+    Flowable<T> created = upstream
+        .takeUntil(cleared.<T>toFlowable())
+        .doFinally(new Action() {
+          @Override public void run() {
+            flowables.remove(key, self.get());
+          }
+        })
+        .replay(1)
+        .refCount(gracePeriodMillis, TimeUnit.MILLISECONDS);
+    self.set(created);
+    shared = (Flowable<T>) flowables.putIfAbsent(key, created);
+    return shared != null ? shared : created;
+  }
+
+  /**
+   * 还在共享中的 key 个数
+   */
+  int size() {
+    return observables.size() + flowables.size();
+  }
+
+  @Override protected void onCleared() {
+    cleared.onComplete();
+  }
+}
@@ -0,0 +1,38 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import org.reactivestreams.Publisher;
+
+/**
+ * Transformer that shares one upstream per key across configuration changes.
+ */
+class SharedStreamTransformer<T> implements ObservableTransformer<T, T>, FlowableTransformer<T, T> {
+  private final SharedStreamHolder holder;
+  private final String key;
+  private final long gracePeriodMillis;
+
+  SharedStreamTransformer(SharedStreamHolder holder, String key, long gracePeriodMillis) {
+    this.holder = holder;
+    this.key = key;
+    this.gracePeriodMillis = gracePeriodMillis;
+  }
+
+  @Override public ObservableSource<T> apply(Observable<T> upstream) {
+    return holder.share(key, upstream, gracePeriodMillis);
+  }
+
+  @Override public Publisher<T> apply(Flowable<T> upstream) {
+    return holder.share(key, upstream, gracePeriodMillis);
+  }
+
+  @Override public String toString() {
+    return "SharedStreamTransformer{"
+        + "key='" + key + '\''
+        + ", gracePeriodMillis=" + gracePeriodMillis
+        + '}';
+  }
+}
@@ -0,0 +1,85 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 等价于 takeUntil(lifecycle.filter(event).firstOrError())，
+ * 目标 event 发生时取消上游并 onError(CancellationException)
+ */
+final class SingleUntilLifeEvent<T> extends Single<T> {
+  private final SingleSource<T> source;
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.Event event;
+
+  SingleUntilLifeEvent(SingleSource<T> source, RxLifeHelper.InnerLifeCycleManager manager,
+      Lifecycle.Event event) {
+    this.source = source;
+    this.manager = manager;
+    this.event = event;
+  }
+
+  @Override protected void subscribeActual(SingleObserver<? super T> observer) {
+    UntilEventObserver<T> parent = new UntilEventObserver<>(observer, manager, event);
+    observer.onSubscribe(parent);
+    if (!parent.register()) {
+      parent.onLifeEvent();
+      return;
+    }
+    source.subscribe(parent);
+  }
+
+  static final class UntilEventObserver<T> extends LifeEventNode
+      implements SingleObserver<T>, Disposable {
+    private final SingleObserver<? super T> downstream;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+    UntilEventObserver(SingleObserver<? super T> downstream,
+        RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.Event event) {
+      super(manager, event);
+      this.downstream = downstream;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(upstream, d);
+    }
+
+    @Override public void onSuccess(T t) {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onSuccess(t);
+      }
+    }
+
+    @Override public void onError(Throwable e) {
+      unregister();
+      if (upstream.getAndSet(DisposableHelper.DISPOSED) != DisposableHelper.DISPOSED) {
+        downstream.onError(e);
+      } else {
+        RxJavaPlugins.onError(e);
+      }
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(upstream);
+      unregister();
+    }
+
+    @Override public boolean isDisposed() {
+      return DisposableHelper.isDisposed(upstream.get());
+    }
+
+    @Override void onLifeEvent() {
+      if (DisposableHelper.dispose(upstream)) {
+        downstream.onError(new CancellationException());
+      }
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.yan.rxlifehelper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bindLatestTag 的代数，按 tag 索引
+ *
+ * 每个订阅持有一次引用，最后一个订阅结束时移除，动态生成的 tag 不会一直留在这里；
+ * 没有订阅时代数不再需要比较，下次重新从 0 开始
+ */
+final class TagGenerations {
+  private final ConcurrentHashMap<String, Generation> generations = new ConcurrentHashMap<>();
+
+  Generation acquire(String tag) {
+    for (; ; ) {
+      Generation generation = generations.get(tag);
+      if (generation == null) {
+        Generation created = new Generation(tag);
+        generation = generations.putIfAbsent(tag, created);
+        if (generation == null) {
+          return created;
+        }
+      }
+      if (generation.retain()) {
+        return generation;
+      }
+      // 已经被最后一个订阅释放，帮忙移除后重试
+      generations.remove(tag, generation);
+    }
+  }
+
+  void release(Generation generation) {
+    if (generation.release()) {
+      generations.remove(generation.tag, generation);
+    }
+  }
+
+  /**
+   * 当前有订阅的 tag 个数
+   */
+  int size() {
+    return generations.size();
+  }
+
+  /**
+   * 引用计数的代数，计数归零后不可再次使用
+   */
+  static final class Generation extends AtomicInteger {
+    final String tag;
+    private final AtomicLong latest = new AtomicLong();
+
+    Generation(String tag) {
+      super(1);
+      this.tag = tag;
+    }
+
+    boolean retain() {
+      for (; ; ) {
+        int count = get();
+        if (count <= 0) {
+          return false;
+        }
+        if (compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    boolean release() {
+      return decrementAndGet() == 0;
+    }
+
+    long next() {
+      return latest.incrementAndGet();
+    }
+
+    boolean isLatest(long generation) {
+      return latest.get() == generation;
+    }
+  }
+}
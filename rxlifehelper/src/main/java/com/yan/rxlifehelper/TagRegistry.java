@@ -0,0 +1,347 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * tag 索引
+ *
+ * 每个 tag 单独持有一个取消信号，sendFilterTag 只会通知到绑定了该 tag 的流，
+ * 最后一个订阅者离开时移除对应的信号
+ *
+ * 信号不经过 Subject: 每个订阅者是一个只能触发一次的节点(CAS)，多个线程同时 send 时
+ * 互不阻塞，同一个订阅者也只会收到一次 onNext，不会出现并发的 onNext
+ *
+ * 含 "/" 的 tag 按层级额外挂到前缀树上，send 以 "/" 结尾的 tag 表示整个分组，
+ * 例如 "feed/images/" 会取消 "feed/images" 及 "feed/images/123" 等所有子 tag，
+ * "user42/" 会取消 "user42" 及 "user42/" 下所有 tag(不含 "/" 的 tag 不进前缀树，单独查找)
+ *
+ * 绑定时以 "/" 结尾的 tag 和去掉结尾 "/" 的 tag 属于同一个分组，只有 send 时才表示整个分组；
+ * 没有名字的分组("/"、"//")按普通 tag 处理，不会取消所有 tag
+ */
+final class TagRegistry {
+  private static final char SEPARATOR = '/';
+
+  private final ConcurrentHashMap<String, TagSignal> signals = new ConcurrentHashMap<>();
+  /**
+   * 只在信号创建和释放时修改，修改时持有 trie 的锁，send 时无锁遍历
+   */
+  private final TrieNode trie = new TrieNode(null, null);
+
+  Observable<String> observe(String tag) {
+    return new TagObservable(this, tag);
+  }
+
+  void send(String tag) {
+    if (isGroup(tag)) {
+      sendGroup(tag);
+      return;
+    }
+    TagSignal signal = signals.get(tag);
+    if (signal != null) {
+      signal.fire(tag);
+    }
+  }
+
+  /**
+   * 只遍历匹配的子树，耗时和命中的 tag 数成正比
+   */
+  private void sendGroup(String group) {
+    String[] segments = segmentsOf(group);
+    if (segments.length == 1) {
+      // 与分组同名、不含 "/" 的 tag 不在前缀树上
+      TagSignal signal = signals.get(segments[0]);
+      if (signal != null) {
+        signal.fire(signal.tag);
+      }
+    }
+    TrieNode node = trie;
+    for (String segment : segments) {
+      node = node.children.get(segment);
+      if (node == null) {
+        return;
+      }
+    }
+    ArrayDeque<TrieNode> stack = new ArrayDeque<>();
+    stack.push(node);
+    while ((node = stack.poll()) != null) {
+      for (TagSignal signal : node.signals) {
+        signal.fire(signal.tag);
+      }
+      for (TrieNode child : node.children.values()) {
+        stack.push(child);
+      }
+    }
+  }
+
+  private void link(TagSignal signal) {
+    synchronized (trie) {
+      TrieNode node = trie;
+      for (String segment : signal.segments) {
+        TrieNode child = node.children.get(segment);
+        if (child == null) {
+          child = new TrieNode(node, segment);
+          node.children.put(segment, child);
+        }
+        node = child;
+      }
+      node.signals.add(signal);
+    }
+  }
+
+  private void unlink(TagSignal signal) {
+    synchronized (trie) {
+      TrieNode node = trie;
+      for (String segment : signal.segments) {
+        node = node.children.get(segment);
+        if (node == null) {
+          return;
+        }
+      }
+      node.signals.remove(signal);
+      // 回收空的分支，保证 sendGroup 遍历到的节点下都有存活的信号
+      while (node.parent != null && node.signals.isEmpty() && node.children.isEmpty()) {
+        node.parent.children.remove(node.segment);
+        node = node.parent;
+      }
+    }
+  }
+
+  /**
+   * 当前存活的 tag 个数
+   */
+  int size() {
+    return signals.size();
+  }
+
+  /**
+   * 以 "/" 结尾并且至少有一个非 "/" 字符
+   */
+  private static boolean isGroup(String tag) {
+    int length = tag.length();
+    if (length == 0 || tag.charAt(length - 1) != SEPARATOR) {
+      return false;
+    }
+    for (int i = length - 2; i >= 0; i--) {
+      if (tag.charAt(i) != SEPARATOR) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String[] segmentsOf(String tag) {
+    if (tag.indexOf(SEPARATOR) < 0) {
+      return null;
+    }
+    // split 会丢掉末尾的空串，"a/b/" 和 "a/b" 落在同一个节点上
+    return tag.split(String.valueOf(SEPARATOR));
+  }
+
+  private TagSignal acquire(String tag) {
+    for (; ; ) {
+      TagSignal signal = signals.get(tag);
+      if (signal == null) {
+        TagSignal created = new TagSignal(tag, segmentsOf(tag));
+        signal = signals.putIfAbsent(tag, created);
+        if (signal == null) {
+          if (created.segments != null) {
+            link(created);
+          }
+          return created;
+        }
+      }
+      if (signal.retain()) {
+        return signal;
+      }
+      // 信号已经被最后一个订阅者释放，帮忙移除后重试
+      signals.remove(tag, signal);
+    }
+  }
+
+  private void release(TagSignal signal) {
+    if (signal.release()) {
+      signals.remove(signal.tag, signal);
+      if (signal.segments != null) {
+        unlink(signal);
+      }
+    }
+  }
+
+  /**
+   * 引用计数的 tag 信号，计数归零后不可再次使用
+   */
+  private static final class TagSignal extends AtomicInteger {
+    final String tag;
+    /**
+     * 不含 "/" 的 tag 为 null，不进入前缀树
+     */
+    final String[] segments;
+    final Set<TagNode> nodes = Collections.newSetFromMap(new ConcurrentHashMap<TagNode, Boolean>());
+
+    TagSignal(String tag, String[] segments) {
+      super(1);
+      this.tag = tag;
+      this.segments = segments;
+    }
+
+    boolean retain() {
+      for (; ; ) {
+        int count = get();
+        if (count <= 0) {
+          return false;
+        }
+        if (compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    boolean release() {
+      return decrementAndGet() == 0;
+    }
+
+    void fire(String value) {
+      for (TagNode node : nodes) {
+        node.fire(value);
+      }
+    }
+  }
+
+  /**
+   * 一个订阅者，触发或 dispose 只生效一次，之后释放信号的引用计数
+   */
+  private static final class TagNode extends AtomicBoolean implements Disposable {
+    private final TagRegistry registry;
+    private final TagSignal signal;
+    private final Observer<? super String> downstream;
+    private final TracingObserver tracing;
+
+    TagNode(TagRegistry registry, TagSignal signal, Observer<? super String> downstream,
+        TracingObserver tracing) {
+      this.registry = registry;
+      this.signal = signal;
+      this.downstream = downstream;
+      this.tracing = tracing;
+    }
+
+    void fire(String value) {
+      if (compareAndSet(false, true)) {
+        downstream.onNext(value);
+        finish();
+      }
+    }
+
+    @Override public void dispose() {
+      if (compareAndSet(false, true)) {
+        finish();
+      }
+    }
+
+    @Override public boolean isDisposed() {
+      return get();
+    }
+
+    private void finish() {
+      signal.nodes.remove(this);
+      registry.release(signal);
+      if (tracing != null) {
+        tracing.onFinally();
+      }
+    }
+  }
+
+  private static final class TrieNode {
+    final TrieNode parent;
+    final String segment;
+    final ConcurrentHashMap<String, TrieNode> children = new ConcurrentHashMap<>();
+    final Set<TagSignal> signals =
+        Collections.newSetFromMap(new ConcurrentHashMap<TagSignal, Boolean>());
+
+    TrieNode(TrieNode parent, String segment) {
+      this.parent = parent;
+      this.segment = segment;
+    }
+  }
+
+  private static final class TagObservable extends Observable<String> {
+    private final TagRegistry registry;
+    private final String tag;
+
+    TagObservable(TagRegistry registry, String tag) {
+      this.registry = registry;
+      this.tag = tag;
+    }
+
+    @Override protected void subscribeActual(Observer<? super String> observer) {
+      RxLifeHelperTracer tracer = RxLifeHelper.tracer;
+      final TracingObserver tracing;
+      if (tracer != null) {
+        tracing = new TracingObserver(observer, tracer, tag);
+        observer = tracing;
+      } else {
+        tracing = null;
+      }
+      TagSignal signal = registry.acquire(tag);
+      TagNode node = new TagNode(registry, signal, observer, tracing);
+      observer.onSubscribe(node);
+      if (!node.isDisposed()) {
+        signal.nodes.add(node);
+        if (node.isDisposed()) {
+          // onSubscribe 之后、加入之前被 dispose，这里补一次移除
+          signal.nodes.remove(node);
+        }
+      }
+    }
+  }
+
+  /**
+   * 只在安装了 tracer 时使用
+   */
+  private static final class TracingObserver implements Observer<String> {
+    private final Observer<? super String> downstream;
+    private final RxLifeHelperTracer tracer;
+    private final String tag;
+    private final long subscribeNanos = System.nanoTime();
+    private volatile boolean disposedByTag;
+
+    TracingObserver(Observer<? super String> downstream, RxLifeHelperTracer tracer, String tag) {
+      this.downstream = downstream;
+      this.tracer = tracer;
+      this.tag = tag;
+      tracer.onSubscribe(null, null, tag, subscribeNanos);
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      downstream.onSubscribe(d);
+    }
+
+    @Override public void onNext(String value) {
+      disposedByTag = true;
+      long sendNanos = System.nanoTime();
+      downstream.onNext(value);
+      tracer.onDisposeByTag(tag, subscribeNanos, sendNanos, System.nanoTime());
+    }
+
+    @Override public void onError(Throwable e) {
+      downstream.onError(e);
+    }
+
+    @Override public void onComplete() {
+      downstream.onComplete();
+    }
+
+    void onFinally() {
+      if (!disposedByTag) {
+        tracer.onUnsubscribe(null, null, tag, subscribeNanos, System.nanoTime());
+      }
+    }
+  }
+}
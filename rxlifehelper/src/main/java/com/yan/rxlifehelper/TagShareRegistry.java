@@ -0,0 +1,120 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Action;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+
+/**
+ * 按 tag 合并进行中的请求，同一个 tag 进行中时新的订阅共用同一个上游，并收到最近的一个数据
+ *
+ * 最后一个订阅者离开、上游结束或 sendFilterTag(tag) 时取消上游并移除
+ *
+ * 按 tag 和流的类型区分，同一个 tag 的 Single 和 Observable 等各自共用自己的上游；
+ * 同一个 tag、同一种流的数据类型需要一致
+ */
+final class TagShareRegistry {
+  /**
+   * Single、Maybe、Completable 转成 Observable 共用，用 Kind 和 Observable 区分开
+   */
+  enum Kind {
+    OBSERVABLE, SINGLE, MAYBE, COMPLETABLE
+  }
+
+  private final TagRegistry tags;
+  private final ConcurrentHashMap<ShareKey, Observable<?>> observables =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Flowable<?>> flowables = new ConcurrentHashMap<>();
+
+  TagShareRegistry(TagRegistry tags) {
+    this.tags = tags;
+  }
+
+  <T> Observable<T> share(String tag, final Kind kind, final Observable<T> upstream) {
+    final ShareKey key = new ShareKey(tag, kind);
+    return Observable.defer(new Callable<ObservableSource<T>>() {
+      @Override public ObservableSource<T> call() {
+        return obtain(key, upstream);
+      }
+    });
+  }
+
+  <T> Flowable<T> share(final String tag, final Flowable<T> upstream) {
+    return Flowable.defer(new Callable<Publisher<T>>() {
+      @Override public Publisher<T> call() {
+        return obtain(tag, upstream);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Observable<T> obtain(final ShareKey key, Observable<T> upstream) {
+    Observable<T> shared = (Observable<T>) observables.get(key);
+    if (shared != null) {
+      return shared;
+    }
+    final AtomicReference<Observable<T>> self = new AtomicReference<>();
+    Observable<T> created = upstream.takeUntil(tags.observe(key.tag))
+        .doFinally(new Action() {
+          @Override public void run() {
+            observables.remove(key, self.get());
+          }
+        })
+        .replay(1)
+        .refCount();
+    self.set(created);
+    shared = (Observable<T>) observables.putIfAbsent(key, created);
+    return shared != null ? shared : created;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Flowable<T> obtain(final String tag, Flowable<T> upstream) {
+    Flowable<T> shared = (Flowable<T>) flowables.get(tag);
+    if (shared != null) {
+      return shared;
+    }
+    final AtomicReference<Flowable<T>> self = new AtomicReference<>();
+    Flowable<T> created = upstream
+        .takeUntil(tags.observe(tag).toFlowable(BackpressureStrategy.LATEST))
+        .doFinally(new Action() {
+          @Override public void run() {
+            flowables.remove(tag, self.get());
+          }
+        })
+        .replay(1)
+        .refCount();
+    self.set(created);
+    shared = (Flowable<T>) flowables.putIfAbsent(tag, created);
+    return shared != null ? shared : created;
+  }
+
+  private static final class ShareKey {
+    final String tag;
+    final Kind kind;
+
+    ShareKey(String tag, Kind kind) {
+      this.tag = tag;
+      this.kind = kind;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ShareKey)) {
+        return false;
+      }
+      ShareKey that = (ShareKey) o;
+      return kind == that.kind && tag.equals(that.tag);
+    }
+
+    @Override public int hashCode() {
+      return 31 * tag.hashCode() + kind.hashCode();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.CompletableTransformer;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
+import io.reactivex.MaybeTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.SingleTransformer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import org.reactivestreams.Publisher;
+
+/**
+ * Transformer that lets concurrent subscribers with the same tag share one upstream.
+ * <p>
+ * Single、Maybe、Completable 转成 Observable 共用，被 sendFilterTag 取消时 Single 以
+ * CancellationException 结束，与 bindFilterTag 一致；不同类型的流即使 tag 相同也不会共用
+ */
+class TagShareTransformer<T>
+    implements ObservableTransformer<T, T>, FlowableTransformer<T, T>, SingleTransformer<T, T>,
+    MaybeTransformer<T, T>, CompletableTransformer {
+  private static final Callable<Throwable> CANCELLED = new Callable<Throwable>() {
+    @Override public Throwable call() {
+      return new CancellationException();
+    }
+  };
+
+  private final TagShareRegistry registry;
+  private final String tag;
+
+  TagShareTransformer(TagShareRegistry registry, String tag) {
+    this.registry = registry;
+    this.tag = tag;
+  }
+
+  @Override public ObservableSource<T> apply(Observable<T> upstream) {
+    return registry.share(tag, TagShareRegistry.Kind.OBSERVABLE, upstream);
+  }
+
+  @Override public Publisher<T> apply(Flowable<T> upstream) {
+    return registry.share(tag, upstream);
+  }
+
+  @Override public SingleSource<T> apply(Single<T> upstream) {
+    return registry.share(tag, TagShareRegistry.Kind.SINGLE, upstream.toObservable())
+        .firstElement()
+        .switchIfEmpty(Single.<T>error(CANCELLED));
+  }
+
+  @Override public MaybeSource<T> apply(Maybe<T> upstream) {
+    return registry.share(tag, TagShareRegistry.Kind.MAYBE, upstream.toObservable())
+        .firstElement();
+  }
+
+  @Override public CompletableSource apply(Completable upstream) {
+    return registry.share(tag, TagShareRegistry.Kind.COMPLETABLE, upstream.<T>toObservable())
+        .ignoreElements();
+  }
+
+  @Override public String toString() {
+    return "TagShareTransformer{" + "tag='" + tag + '\'' + '}';
+  }
+}
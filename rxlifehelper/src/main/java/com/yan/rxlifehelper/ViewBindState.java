@@ -0,0 +1,131 @@
+package com.yan.rxlifehelper;
+
+import android.os.Looper;
+import android.view.View;
+import androidx.annotation.MainThread;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.observers.SerializedObserver;
+import io.reactivex.subjects.PublishSubject;
+import java.util.ArrayDeque;
+
+/**
+ * view 绑定状态，挂在 view 的 tag 上，detach 后回收到池里给其他 view 复用
+ *
+ * 一次绑定周期(session)内的流共用一个 transformer，detach、recycle 或换了 bindKey 时
+ * 结束当前周期，subject 本身不结束，继续给下一个周期使用。除订阅外都在主线程访问
+ */
+final class ViewBindState implements View.OnAttachStateChangeListener {
+  private static final int MAX_POOL_SIZE = 32;
+  private static final Object SIGNAL = Boolean.TRUE;
+  /**
+   * 只在主线程访问，不需要加锁
+   */
+  private static final ArrayDeque<ViewBindState> POOL = new ArrayDeque<>();
+
+  private final PublishSubject<Object> subject = PublishSubject.create();
+  /**
+   * 每结束一个周期加一，晚到的订阅据此判断所属周期是否已经结束
+   */
+  private volatile int generation;
+  private int tagKey;
+  private Object bindKey;
+  private LifecycleTransformer<?> transformer;
+
+  @MainThread static ViewBindState obtain(View view, int tagKey) {
+    ViewBindState state = (ViewBindState) view.getTag(tagKey);
+    if (state == null) {
+      state = POOL.poll();
+      if (state == null) {
+        state = new ViewBindState();
+      }
+      state.tagKey = tagKey;
+      view.addOnAttachStateChangeListener(state);
+      view.setTag(tagKey, state);
+    }
+    return state;
+  }
+
+  @MainThread static void recycle(View view, int tagKey) {
+    ViewBindState state = (ViewBindState) view.getTag(tagKey);
+    if (state != null) {
+      state.endSession();
+    }
+  }
+
+  /**
+   * 清空复用池，之后 detach 的状态重新进入池里
+   */
+  @MainThread static void clearPool() {
+    POOL.clear();
+  }
+
+  /**
+   * @param bindKey 与上次不同时先结束上一个周期，null 不检查
+   */
+  @SuppressWarnings("unchecked") @MainThread <T> LifecycleTransformer<T> bind(Object bindKey) {
+    if (bindKey != null && !bindKey.equals(this.bindKey)) {
+      if (this.bindKey != null) {
+        endSession();
+      }
+      this.bindKey = bindKey;
+    }
+    if (transformer == null) {
+      transformer = RxLifecycle.bind(new SessionSignal(this, generation));
+    }
+    return (LifecycleTransformer<T>) transformer;
+  }
+
+  private void endSession() {
+    generation++;
+    transformer = null;
+    bindKey = null;
+    subject.onNext(SIGNAL);
+  }
+
+  @Override public void onViewAttachedToWindow(View v) {
+  }
+
+  @Override public void onViewDetachedFromWindow(View v) {
+    v.removeOnAttachStateChangeListener(this);
+    v.setTag(tagKey, null);
+    endSession();
+    if (POOL.size() < MAX_POOL_SIZE) {
+      POOL.offer(this);
+    }
+  }
+
+  /**
+   * 某一个周期的结束信号
+   */
+  private static final class SessionSignal extends Observable<Object> {
+    private final ViewBindState state;
+    private final int generation;
+
+    SessionSignal(ViewBindState state, int generation) {
+      this.state = state;
+      this.generation = generation;
+    }
+
+    @Override protected void subscribeActual(Observer<? super Object> observer) {
+      if (state.generation != generation) {
+        observer.onSubscribe(Disposables.disposed());
+        observer.onNext(SIGNAL);
+        return;
+      }
+      Looper mainLooper = Looper.getMainLooper();
+      if (mainLooper != null && Looper.myLooper() == mainLooper) {
+        // 周期只在主线程结束，这里不会和 endSession 并发
+        state.subject.subscribe(observer);
+        return;
+      }
+      // 其他线程订阅时周期可能刚好结束，订阅后再检查一次，串行化避免和 subject 同时回调
+      SerializedObserver<Object> serialized = new SerializedObserver<>(observer);
+      state.subject.subscribe(serialized);
+      if (state.generation != generation) {
+        serialized.onNext(SIGNAL);
+      }
+    }
+  }
+}
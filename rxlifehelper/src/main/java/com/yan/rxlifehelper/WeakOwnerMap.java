@@ -0,0 +1,113 @@
+package com.yan.rxlifehelper;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 弱引用 key 的并发 map, key 按对象地址比较
+ *
+ * 没有走到 ON_DESTROY 的 owner 被回收后，对应的 value 会在下一次访问时清理掉，
+ * 所以 value 不能强引用 key
+ *
+ * 查找用的 key 每个线程复用一个，get/remove 不分配对象
+ */
+final class WeakOwnerMap<K, V> {
+  private static final ThreadLocal<LookupKey> LOOKUP_KEY = new ThreadLocal<LookupKey>() {
+    @Override protected LookupKey initialValue() {
+      return new LookupKey();
+    }
+  };
+
+  private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<>();
+  private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+  V get(K owner) {
+    purge();
+    LookupKey key = LOOKUP_KEY.get();
+    key.referent = owner;
+    try {
+      return map.get(key);
+    } finally {
+      // 用完清掉，不持有 owner
+      key.referent = null;
+    }
+  }
+
+  /**
+   * @return 已经存在的 value，不存在时返回 null 并放入 value
+   */
+  V putIfAbsent(K owner, V value) {
+    purge();
+    return map.putIfAbsent(new WeakKey<>(owner, queue), value);
+  }
+
+  V remove(K owner) {
+    LookupKey key = LOOKUP_KEY.get();
+    key.referent = owner;
+    try {
+      return map.remove(key);
+    } finally {
+      key.referent = null;
+    }
+  }
+
+  int size() {
+    purge();
+    return map.size();
+  }
+
+  private void purge() {
+    Reference<? extends K> ref;
+    while ((ref = queue.poll()) != null) {
+      map.remove(ref);
+    }
+  }
+
+  private static Object referentOf(Object key) {
+    if (key instanceof WeakKey) {
+      return ((WeakKey<?>) key).get();
+    }
+    if (key instanceof LookupKey) {
+      return ((LookupKey) key).referent;
+    }
+    return null;
+  }
+
+  private static final class WeakKey<K> extends WeakReference<K> {
+    private final int hash;
+
+    WeakKey(K referent, ReferenceQueue<K> queue) {
+      super(referent, queue);
+      hash = System.identityHashCode(referent);
+    }
+
+    @Override public int hashCode() {
+      return hash;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      Object referent = get();
+      return referent != null && referent == referentOf(o);
+    }
+  }
+
+  private static final class LookupKey {
+    private Object referent;
+
+    @Override public int hashCode() {
+      return System.identityHashCode(referent);
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      return referent == referentOf(o);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.functions.Function;
+import org.reactivestreams.Publisher;
+
+/**
+ * Observable 和 Flowable 在状态低于 state 时取消上游，重新达到 state 时再次订阅；
+ * Single、Maybe、Completable 只有一个结果，不重新订阅: 订阅时低于 state 先等到达到 state
+ * 再订阅上游，之后低于 state 时结束
+ */
+class WhileAtLeastTransformer<T> extends LifecycleTransformer<T> {
+  private final RxLifeHelper.InnerLifeCycleManager manager;
+  private final Lifecycle.State state;
+  private final Function<? super T, ? extends ObservableSource<? extends T>> observableResume;
+  private final Function<? super T, ? extends Publisher<? extends T>> flowableResume;
+
+  WhileAtLeastTransformer(RxLifeHelper.InnerLifeCycleManager manager, Lifecycle.State state,
+      Function<? super T, ? extends ObservableSource<? extends T>> observableResume,
+      Function<? super T, ? extends Publisher<? extends T>> flowableResume) {
+    super(null);
+    this.manager = manager;
+    this.state = state;
+    this.observableResume = observableResume;
+    this.flowableResume = flowableResume;
+  }
+
+  @Override public ObservableSource<T> apply(Observable<T> upstream) {
+    return new ObservableWhileAtLeast<>(upstream, manager, state, observableResume);
+  }
+
+  @Override public Publisher<T> apply(Flowable<T> upstream) {
+    return new FlowableWhileAtLeast<>(upstream, manager, state, flowableResume);
+  }
+
+  @Override public SingleSource<T> apply(Single<T> upstream) {
+    return atLeast().andThen(
+        new SingleUntilLifeEvent<>(upstream, manager, LifeStateSwitch.downEvent(state)));
+  }
+
+  @Override public MaybeSource<T> apply(Maybe<T> upstream) {
+    return atLeast().andThen(
+        new MaybeUntilLifeEvent<>(upstream, manager, LifeStateSwitch.downEvent(state)));
+  }
+
+  @Override public CompletableSource apply(Completable upstream) {
+    return atLeast().andThen(
+        new CompletableUntilLifeEvent(upstream, manager, LifeStateSwitch.downEvent(state),
+            CompletableCancelMode.ERROR));
+  }
+
+  private Completable atLeast() {
+    return new CompletableAtLeast(manager, state);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    WhileAtLeastTransformer<?> that = (WhileAtLeastTransformer<?>) o;
+
+    return manager == that.manager
+        && state == that.state
+        && observableResume == that.observableResume
+        && flowableResume == that.flowableResume;
+  }
+
+  @Override public int hashCode() {
+    int result = System.identityHashCode(manager);
+    result = 31 * result + state.hashCode();
+    result = 31 * result + System.identityHashCode(observableResume);
+    result = 31 * result + System.identityHashCode(flowableResume);
+    return result;
+  }
+
+  @Override public String toString() {
+    return getClass().getSimpleName() + "{" + "state=" + state + '}';
+  }
+}
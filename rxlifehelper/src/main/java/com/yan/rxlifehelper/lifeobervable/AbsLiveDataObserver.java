@@ -1,34 +1,69 @@
 package com.yan.rxlifehelper.lifeobervable;
 
-import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
-import io.reactivex.android.schedulers.AndroidSchedulers;
+import com.yan.rxlifehelper.RxLifeHelper;
 import io.reactivex.disposables.Disposable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * 数据先进入按 {@link LiveBufferPolicy} 创建的缓存，owner 活跃时在主线程按顺序分发，
+ * 结束事件排在缓存的数据之后，同样在 owner 活跃时分发
+ *
  * @author genius
  * @date 2019/11/3
  */
 abstract class AbsLiveDataObserver<T> extends LiveData<T> implements Observer<T>, Disposable {
-  private boolean isActive;
-  private boolean isExecute = false;
-  private T data;
-
-  AbsLiveDataObserver(final LifecycleOwner lifecycleOwner) {
-    if (!isMain()) {
-      AndroidSchedulers.mainThread().scheduleDirect(new Runnable() {
-        @Override public void run() {
-          if (!isDisposed()
-              && lifecycleOwner.getLifecycle() != null
-              && lifecycleOwner.getLifecycle().getCurrentState() != null) {
-            observe(lifecycleOwner, AbsLiveDataObserver.this);
-          }
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy.LiveBuffer<T> buffer;
+  private final FrameClock frameClock;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final Runnable drainTask = new Runnable() {
+    @Override public void run() {
+      drainScheduled.set(false);
+      drain();
+    }
+  };
+  private volatile boolean isActive;
+  private volatile boolean done;
+  private volatile Throwable error;
+  /**
+   * 只在主线程访问
+   */
+  private boolean terminated;
+
+  AbsLiveDataObserver(LifecycleOwner lifecycleOwner, LiveBufferPolicy policy) {
+    this.lifecycleOwner = lifecycleOwner;
+    buffer = policy.newBuffer();
+    frameClock = policy.frameClock;
+  }
+
+  /**
+   * 构造完成后、订阅上游前调用。不能放在构造函数里: 主线程上 observe 会同步回调 onActive，
+   * 此时子类的字段还没有初始化
+   */
+  final void observeOwner() {
+    if (isMain()) {
+      observeIfAlive();
+      return;
+    }
+    MainDispatcher.dispatch(new Runnable() {
+      @Override public void run() {
+        if (!isDisposed()) {
+          observeIfAlive();
         }
-      });
-    } else {
+      }
+    });
+  }
+
+  /**
+   * 订阅可能晚于绑定，owner 此时可能已经销毁
+   */
+  private void observeIfAlive() {
+    if (lifecycleOwner.getLifecycle() != null
+        && lifecycleOwner.getLifecycle().getCurrentState() != null) {
       observe(lifecycleOwner, this);
     }
   }
@@ -39,23 +74,92 @@ abstract class AbsLiveDataObserver<T> extends LiveData<T> implements Observer<T>
 
   @Override protected void onActive() {
     isActive = true;
-    realOnNext();
+    drain();
+    onResume();
+  }
+
+  /**
+   * owner 重新活跃，缓存的数据已经分发
+   */
+  void onResume() {
+  }
+
+  final boolean isLiveActive() {
+    return isActive;
   }
 
   void onLiveNext(T data) {
-    isExecute = true;
-    this.data = data;
-    realOnNext();
+    if (!buffer.offer(data)) {
+      onDropped();
+      // 活跃期间的覆盖只是还没来得及分发，不算作不活跃期间的丢弃
+      if (!isActive) {
+        RxLifeHelper.traceItemDropped(lifecycleOwner);
+      }
+    }
+    scheduleDrain();
   }
 
-  private void realOnNext() {
-    if (isExecute && isActive) {
-      isExecute = false;
-      if (isMain()) {
-        setValue(data);
-      } else {
-        postValue(data);
+  /**
+   * 缓存满了丢弃了一个数据，可能在任意线程
+   */
+  void onDropped() {
+  }
+
+  void onLiveError(Throwable e) {
+    RxLifeHelper.traceError(lifecycleOwner, e);
+    error = e;
+    done = true;
+    scheduleDrain();
+  }
+
+  void onLiveComplete() {
+    done = true;
+    scheduleDrain();
+  }
+
+  /**
+   * 缓存的数据全部分发后在主线程回调
+   *
+   * @param e null 表示正常结束
+   */
+  abstract void onTerminate(Throwable e);
+
+  private void scheduleDrain() {
+    if (frameClock != null) {
+      if (drainScheduled.compareAndSet(false, true)) {
+        frameClock.postFrameCallback(drainTask);
       }
+    } else if (isMain()) {
+      drain();
+    } else if (drainScheduled.compareAndSet(false, true)) {
+      MainDispatcher.dispatch(drainTask);
+    }
+  }
+
+  private void drain() {
+    if (terminated) {
+      return;
+    }
+    if (isDisposed()) {
+      buffer.clear();
+      return;
+    }
+    // 读取 done 需要在 poll 之前，保证看到 done 时，结束前的数据都已经在缓存里
+    boolean isDone = done;
+    if (isActive) {
+      T data;
+      while (isActive && (data = buffer.poll()) != null) {
+        onChanged(data);
+        if (isDisposed()) {
+          buffer.clear();
+          return;
+        }
+      }
+    }
+    // 结束事件同样等到 owner 活跃时分发，例如 Completable 没有数据可以缓存
+    if (isDone && isActive && buffer.isEmpty()) {
+      terminated = true;
+      onTerminate(error);
     }
   }
 
@@ -64,7 +168,7 @@ abstract class AbsLiveDataObserver<T> extends LiveData<T> implements Observer<T>
       super.removeObservers(owner);
       return;
     }
-    AndroidSchedulers.mainThread().scheduleDirect(new Runnable() {
+    MainDispatcher.dispatch(new Runnable() {
       @Override public void run() {
         AbsLiveDataObserver.super.removeObservers(owner);
       }
@@ -72,6 +176,6 @@ abstract class AbsLiveDataObserver<T> extends LiveData<T> implements Observer<T>
   }
 
   private boolean isMain() {
-    return Looper.getMainLooper().getThread() == Thread.currentThread();
+    return MainDispatcher.isMain();
   }
 }
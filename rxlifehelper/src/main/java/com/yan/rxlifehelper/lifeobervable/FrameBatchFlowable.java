@@ -0,0 +1,125 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 任意线程来的数据先进入无锁队列，主线程每帧合并成一个 List 分发一次
+ *
+ * 上游按无界请求，下游的请求数按 List 个数计算，没有请求时数据留在队列里合并到下一帧
+ *
+ * @author genius
+ */
+public final class FrameBatchFlowable<T> extends Flowable<List<T>> {
+  private final Flowable<T> upstream;
+  private final FrameClock frameClock;
+
+  public FrameBatchFlowable(Flowable<T> upstream, FrameClock frameClock) {
+    this.upstream = upstream;
+    this.frameClock = frameClock;
+  }
+
+  @Override protected void subscribeActual(Subscriber<? super List<T>> subscriber) {
+    upstream.subscribe(new BatchSubscriber<>(subscriber, frameClock));
+  }
+
+  static final class BatchSubscriber<T> implements FlowableSubscriber<T>, Subscription, Runnable {
+    private final Subscriber<? super List<T>> downstream;
+    private final FrameClock frameClock;
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean done;
+    private volatile Throwable error;
+    /**
+     * 只在主线程访问
+     */
+    private boolean terminated;
+
+    BatchSubscriber(Subscriber<? super List<T>> downstream, FrameClock frameClock) {
+      this.downstream = downstream;
+      this.frameClock = frameClock;
+    }
+
+    @Override public void onSubscribe(Subscription s) {
+      if (SubscriptionHelper.setOnce(upstream, s)) {
+        downstream.onSubscribe(this);
+        s.request(Long.MAX_VALUE);
+      }
+    }
+
+    @Override public void onNext(T data) {
+      queue.offer(data);
+      schedule();
+    }
+
+    @Override public void onError(Throwable e) {
+      error = e;
+      done = true;
+      schedule();
+    }
+
+    @Override public void onComplete() {
+      done = true;
+      schedule();
+    }
+
+    @Override public void request(long n) {
+      if (SubscriptionHelper.validate(n)) {
+        BackpressureHelper.add(requested, n);
+        schedule();
+      }
+    }
+
+    @Override public void cancel() {
+      SubscriptionHelper.cancel(upstream);
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        frameClock.postFrameCallback(this);
+      }
+    }
+
+    @Override public void run() {
+      scheduled.set(false);
+      if (terminated) {
+        return;
+      }
+      if (upstream.get() == SubscriptionHelper.CANCELLED) {
+        queue.clear();
+        return;
+      }
+      boolean isDone = done;
+      if (requested.get() != 0L && !queue.isEmpty()) {
+        List<T> batch = new ArrayList<>();
+        T data;
+        while ((data = queue.poll()) != null) {
+          batch.add(data);
+        }
+        BackpressureHelper.produced(requested, 1);
+        downstream.onNext(batch);
+      }
+      if (isDone && queue.isEmpty()) {
+        terminated = true;
+        Throwable e = error;
+        if (e == null) {
+          downstream.onComplete();
+        } else {
+          downstream.onError(e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 任意线程来的数据先进入无锁队列，主线程每帧合并成一个 List 分发一次
+ *
+ * @author genius
+ */
+public final class FrameBatchObservable<T> extends Observable<List<T>> {
+  private final Observable<T> upstream;
+  private final FrameClock frameClock;
+
+  public FrameBatchObservable(Observable<T> upstream, FrameClock frameClock) {
+    this.upstream = upstream;
+    this.frameClock = frameClock;
+  }
+
+  @Override protected void subscribeActual(Observer<? super List<T>> observer) {
+    upstream.subscribe(new BatchObserver<>(observer, frameClock));
+  }
+
+  static final class BatchObserver<T> implements Observer<T>, Disposable, Runnable {
+    private final Observer<? super List<T>> downstream;
+    private final FrameClock frameClock;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean done;
+    private volatile Throwable error;
+    /**
+     * 只在主线程访问
+     */
+    private boolean terminated;
+
+    BatchObserver(Observer<? super List<T>> downstream, FrameClock frameClock) {
+      this.downstream = downstream;
+      this.frameClock = frameClock;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      if (DisposableHelper.setOnce(upstream, d)) {
+        downstream.onSubscribe(this);
+      }
+    }
+
+    @Override public void onNext(T data) {
+      queue.offer(data);
+      schedule();
+    }
+
+    @Override public void onError(Throwable e) {
+      error = e;
+      done = true;
+      schedule();
+    }
+
+    @Override public void onComplete() {
+      done = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        frameClock.postFrameCallback(this);
+      }
+    }
+
+    @Override public void run() {
+      scheduled.set(false);
+      if (terminated) {
+        return;
+      }
+      if (isDisposed()) {
+        queue.clear();
+        return;
+      }
+      boolean isDone = done;
+      List<T> batch = null;
+      T data;
+      while ((data = queue.poll()) != null) {
+        if (batch == null) {
+          batch = new ArrayList<>();
+        }
+        batch.add(data);
+      }
+      if (batch != null) {
+        downstream.onNext(batch);
+      }
+      if (isDone) {
+        terminated = true;
+        Throwable e = error;
+        if (e == null) {
+          downstream.onComplete();
+        } else {
+          downstream.onError(e);
+        }
+      }
+    }
+
+    @Override public void dispose() {
+      DisposableHelper.dispose(upstream);
+    }
+
+    @Override public boolean isDisposed() {
+      return upstream.get() == DisposableHelper.DISPOSED;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import androidx.annotation.RequiresApi;
+
+/**
+ * 帧时钟，按帧合并主线程分发时使用，可替换(例如测试时使用固定间隔)
+ *
+ * @author genius
+ */
+public abstract class FrameClock {
+  /**
+   * 可在任意线程调用，callback 在主线程的下一帧执行
+   */
+  public abstract void postFrameCallback(Runnable callback);
+
+  /**
+   * 基于 Choreographer，API 16 以下退化为 16ms 的 Handler 消息
+   */
+  public static FrameClock choreographer() {
+    return ChoreographerClock.INSTANCE;
+  }
+
+  private static final class ChoreographerClock extends FrameClock {
+    static final ChoreographerClock INSTANCE = new ChoreographerClock();
+    private static final long FRAME_MILLIS = 16;
+
+    @Override public void postFrameCallback(final Runnable callback) {
+      if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+        HandlerHolder.HANDLER.postDelayed(callback, FRAME_MILLIS);
+      } else if (MainDispatcher.isMain()) {
+        postChoreographer(callback);
+      } else {
+        MainDispatcher.dispatch(new Runnable() {
+          @Override public void run() {
+            postChoreographer(callback);
+          }
+        });
+      }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static void postChoreographer(final Runnable callback) {
+      Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+        @Override public void doFrame(long frameTimeNanos) {
+          callback.run();
+        }
+      });
+    }
+  }
+
+  /**
+   * 只有 API 16 以下用到，用到时才创建
+   */
+  private static final class HandlerHolder {
+    static final Handler HANDLER = new Handler(Looper.getMainLooper());
+  }
+}
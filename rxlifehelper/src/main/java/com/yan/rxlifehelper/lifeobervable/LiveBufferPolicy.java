@@ -0,0 +1,184 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import io.reactivex.Flowable;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * live 系列在 owner 不活跃期间(低于 STARTED)收到数据时的缓存策略
+ *
+ * 1. latest: 只保留最新的一个(默认，与之前的 LiveData 行为一致)
+ * 2. ring: 固定容量，满了之后丢弃最旧或最新的数据
+ * 3. unbounded: 不丢弃
+ *
+ * 缓存的数据在 owner 重新活跃时一次性按顺序分发，{@link #droppedCount()} 统计使用该策略的所有流丢弃的数据个数
+ *
+ * {@link #withFrameClock(FrameClock)} 之后，任意线程来的数据每帧只在主线程分发一次
+ *
+ * {@link #withPausedDemand()} 之后，LiveFlowable 在 owner 不活跃期间不再向上游请求数据
+ *
+ * @author genius
+ */
+public final class LiveBufferPolicy {
+  public enum Overflow {
+    DROP_OLDEST, DROP_NEWEST
+  }
+
+  private static final LiveBufferPolicy LATEST =
+      new LiveBufferPolicy(1, Overflow.DROP_OLDEST, null, false);
+
+  private final int capacity;
+  private final Overflow overflow;
+  final FrameClock frameClock;
+  final boolean pauseDemand;
+  private final AtomicLong dropped = new AtomicLong();
+
+  private LiveBufferPolicy(int capacity, Overflow overflow, FrameClock frameClock,
+      boolean pauseDemand) {
+    this.capacity = capacity;
+    this.overflow = overflow;
+    this.frameClock = frameClock;
+    this.pauseDemand = pauseDemand;
+  }
+
+  /**
+   * 共享实例，丢弃个数为所有默认策略的流的总和
+   */
+  public static LiveBufferPolicy latest() {
+    return LATEST;
+  }
+
+  public static LiveBufferPolicy ring(int capacity, Overflow overflow) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+    }
+    if (overflow == null) {
+      throw new NullPointerException("overflow == null");
+    }
+    return new LiveBufferPolicy(capacity, overflow, null, false);
+  }
+
+  public static LiveBufferPolicy unbounded() {
+    return new LiveBufferPolicy(Integer.MAX_VALUE, Overflow.DROP_NEWEST, null, false);
+  }
+
+  /**
+   * 相同的缓存策略，按帧批量分发，例如 latest().withFrameClock(..) 每帧只分发最新的一个
+   */
+  public LiveBufferPolicy withFrameClock(FrameClock frameClock) {
+    if (frameClock == null) {
+      throw new NullPointerException("frameClock == null");
+    }
+    return new LiveBufferPolicy(capacity, overflow, frameClock, pauseDemand);
+  }
+
+  /**
+   * 相同的缓存策略，LiveFlowable 只在 owner 活跃时向上游请求，每批不超过缓存容量，
+   * 数据分发给下游后再补充，下游一次 request(Long.MAX_VALUE) 也不会让上游一直生产。
+   * 暂停时已经请求的一批无法收回，上游最多再生产这一批，重新活跃时继续请求
+   */
+  public LiveBufferPolicy withPausedDemand() {
+    return new LiveBufferPolicy(capacity, overflow, frameClock, true);
+  }
+
+  public long droppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * withPausedDemand 时每批向上游请求的个数
+   */
+  int prefetch() {
+    return Math.min(capacity, Flowable.bufferSize());
+  }
+
+  <T> LiveBuffer<T> newBuffer() {
+    if (capacity == Integer.MAX_VALUE) {
+      return new UnboundedBuffer<>();
+    }
+    return new BoundedBuffer<>(this);
+  }
+
+  @Override public String toString() {
+    return "LiveBufferPolicy{"
+        + "capacity=" + capacity
+        + ", overflow=" + overflow
+        + ", frameClock=" + frameClock
+        + ", pauseDemand=" + pauseDemand
+        + '}';
+  }
+
+  /**
+   * 上游线程写入，主线程读取
+   */
+  interface LiveBuffer<T> {
+    /**
+     * @return false 有数据被丢弃
+     */
+    boolean offer(T data);
+
+    T poll();
+
+    boolean isEmpty();
+
+    void clear();
+  }
+
+  private static final class BoundedBuffer<T> implements LiveBuffer<T> {
+    private final LiveBufferPolicy policy;
+    private final ArrayDeque<T> queue = new ArrayDeque<>();
+
+    BoundedBuffer(LiveBufferPolicy policy) {
+      this.policy = policy;
+    }
+
+    @Override public synchronized boolean offer(T data) {
+      if (queue.size() < policy.capacity) {
+        queue.offer(data);
+        return true;
+      }
+      policy.dropped.incrementAndGet();
+      if (policy.overflow == Overflow.DROP_OLDEST) {
+        queue.poll();
+        queue.offer(data);
+      }
+      return false;
+    }
+
+    @Override public synchronized T poll() {
+      return queue.poll();
+    }
+
+    @Override public synchronized boolean isEmpty() {
+      return queue.isEmpty();
+    }
+
+    @Override public synchronized void clear() {
+      queue.clear();
+    }
+  }
+
+  /**
+   * 无界时不需要判断容量，直接使用无锁队列
+   */
+  private static final class UnboundedBuffer<T> implements LiveBuffer<T> {
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+
+    @Override public boolean offer(T data) {
+      return queue.offer(data);
+    }
+
+    @Override public T poll() {
+      return queue.poll();
+    }
+
+    @Override public boolean isEmpty() {
+      return queue.isEmpty();
+    }
+
+    @Override public void clear() {
+      queue.clear();
+    }
+  }
+}
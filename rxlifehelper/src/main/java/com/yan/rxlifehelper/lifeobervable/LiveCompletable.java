@@ -0,0 +1,83 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.LifecycleOwner;
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.CompletableSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 没有数据，只把结束事件切到主线程分发
+ */
+public final class LiveCompletable extends Completable {
+  private final CompletableSource upstream;
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy policy;
+
+  public LiveCompletable(CompletableSource upstream, LifecycleOwner lifecycleOwner) {
+    this(upstream, lifecycleOwner, LiveBufferPolicy.latest());
+  }
+
+  public LiveCompletable(CompletableSource upstream, LifecycleOwner lifecycleOwner,
+      LiveBufferPolicy policy) {
+    this.upstream = upstream;
+    this.lifecycleOwner = lifecycleOwner;
+    this.policy = policy;
+  }
+
+  @Override protected void subscribeActual(CompletableObserver observer) {
+    LiveObserver parent = new LiveObserver(lifecycleOwner, policy, observer);
+    parent.observeOwner();
+    upstream.subscribe(parent);
+  }
+
+  static class LiveObserver extends AbsLiveDataObserver<Object>
+      implements CompletableObserver, Disposable {
+    private final CompletableObserver downstream;
+    private final LifecycleOwner lifecycleOwner;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+
+    LiveObserver(LifecycleOwner lifecycleOwner, LiveBufferPolicy policy,
+        final CompletableObserver downstream) {
+      super(lifecycleOwner, policy);
+      this.downstream = downstream;
+      this.lifecycleOwner = lifecycleOwner;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+      DisposableHelper.setOnce(this.upstream, d);
+      downstream.onSubscribe(this);
+    }
+
+    @Override public void onError(Throwable e) {
+      onLiveError(e);
+    }
+
+    @Override public void onComplete() {
+      onLiveComplete();
+    }
+
+    @Override void onTerminate(Throwable e) {
+      removeObservers(lifecycleOwner);
+      if (e == null) {
+        downstream.onComplete();
+      } else {
+        downstream.onError(e);
+      }
+    }
+
+    @Override public void dispose() {
+      removeObservers(lifecycleOwner);
+      DisposableHelper.dispose(upstream);
+    }
+
+    @Override public final boolean isDisposed() {
+      return upstream.get() == DisposableHelper.DISPOSED;
+    }
+
+    @Override public void onChanged(Object data) {
+    }
+  }
+}
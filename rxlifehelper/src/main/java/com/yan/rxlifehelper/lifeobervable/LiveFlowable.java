@@ -4,6 +4,7 @@ import androidx.lifecycle.LifecycleOwner;
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
 import io.reactivex.internal.util.EndConsumerHelper;
 import java.util.concurrent.atomic.AtomicReference;
 import org.reactivestreams.Subscriber;
@@ -14,16 +15,25 @@ import org.reactivestreams.Subscription;
  * @date 2019/11/3
  */
 public final class LiveFlowable<T> extends Flowable<T> {
-  private Flowable<T> upstream;
-  private LifecycleOwner lifecycleOwner;
+  private final Flowable<T> upstream;
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy policy;
 
   public LiveFlowable(Flowable<T> upstream, LifecycleOwner lifecycleOwner) {
+    this(upstream, lifecycleOwner, LiveBufferPolicy.latest());
+  }
+
+  public LiveFlowable(Flowable<T> upstream, LifecycleOwner lifecycleOwner,
+      LiveBufferPolicy policy) {
     this.upstream = upstream;
     this.lifecycleOwner = lifecycleOwner;
+    this.policy = policy;
   }
 
   @Override protected void subscribeActual(Subscriber<? super T> observer) {
-    upstream.subscribe(new LiveObserver<>(lifecycleOwner, observer));
+    LiveObserver<T> parent = new LiveObserver<>(lifecycleOwner, policy, observer);
+    parent.observeOwner();
+    upstream.subscribe(parent);
   }
 
   static class LiveObserver<T> extends AbsLiveDataObserver<T>
@@ -31,11 +41,17 @@ public final class LiveFlowable<T> extends Flowable<T> {
     private final Subscriber<? super T> downstream;
     private final LifecycleOwner lifecycleOwner;
     private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    /**
+     * withPausedDemand 时的按批请求，为 null 时直接转发
+     */
+    private final PausedDemand demand;
 
-    LiveObserver(LifecycleOwner lifecycleOwner, final Subscriber<? super T> downstream) {
-      super(lifecycleOwner);
+    LiveObserver(LifecycleOwner lifecycleOwner, LiveBufferPolicy policy,
+        final Subscriber<? super T> downstream) {
+      super(lifecycleOwner, policy);
       this.downstream = downstream;
       this.lifecycleOwner = lifecycleOwner;
+      demand = policy.pauseDemand ? new PausedDemand(policy.prefetch()) : null;
     }
 
     @Override public void onSubscribe(Subscription s) {
@@ -48,17 +64,57 @@ public final class LiveFlowable<T> extends Flowable<T> {
     }
 
     @Override public void onError(Throwable e) {
-      removeObservers(lifecycleOwner);
-      downstream.onError(e);
+      onLiveError(e);
     }
 
     @Override public void onComplete() {
+      onLiveComplete();
+    }
+
+    @Override void onTerminate(Throwable e) {
       removeObservers(lifecycleOwner);
-      downstream.onComplete();
+      if (e == null) {
+        downstream.onComplete();
+      } else {
+        downstream.onError(e);
+      }
     }
 
     @Override public void request(long n) {
-      upstream.get().request(n);
+      if (demand == null) {
+        upstream.get().request(n);
+        return;
+      }
+      if (SubscriptionHelper.validate(n)) {
+        demand.add(n);
+        requestMore();
+      }
+    }
+
+    @Override void onResume() {
+      if (demand != null) {
+        requestMore();
+      }
+    }
+
+    @Override void onDropped() {
+      if (demand != null) {
+        demand.consumed();
+        requestMore();
+      }
+    }
+
+    /**
+     * 只在活跃时请求，暂停与请求之间的竞争最多多请求一批
+     */
+    private void requestMore() {
+      if (!isLiveActive()) {
+        return;
+      }
+      long n = demand.next();
+      if (n != 0) {
+        upstream.get().request(n);
+      }
     }
 
     @Override public void cancel() {
@@ -67,6 +123,10 @@ public final class LiveFlowable<T> extends Flowable<T> {
 
     @Override public void onChanged(T data) {
       downstream.onNext(data);
+      if (demand != null) {
+        demand.consumed();
+        requestMore();
+      }
     }
 
     @Override public final boolean isDisposed() {
@@ -78,4 +138,50 @@ public final class LiveFlowable<T> extends Flowable<T> {
       SubscriptionHelper.cancel(upstream);
     }
   }
+
+  /**
+   * 下游的 request 先记在这里，每批最多向上游请求 prefetch 个，
+   * 已请求的数据分发或丢弃了 limit 个之后再补充
+   */
+  static final class PausedDemand {
+    private final int prefetch;
+    private final int limit;
+    /**
+     * 下游请求了、还没有转给上游的个数，Long.MAX_VALUE 表示不限
+     */
+    private long requested;
+    /**
+     * 向上游请求了、还没有分发或丢弃的个数
+     */
+    private long inFlight;
+
+    PausedDemand(int prefetch) {
+      this.prefetch = prefetch;
+      this.limit = prefetch - (prefetch >> 2);
+    }
+
+    synchronized void add(long n) {
+      requested = BackpressureHelper.addCap(requested, n);
+    }
+
+    synchronized void consumed() {
+      inFlight--;
+    }
+
+    /**
+     * @return 这次应该向上游请求的个数
+     */
+    synchronized long next() {
+      long room = prefetch - inFlight;
+      if (room <= 0 || (inFlight != 0 && room < limit)) {
+        return 0;
+      }
+      long n = Math.min(room, requested);
+      if (requested != Long.MAX_VALUE) {
+        requested -= n;
+      }
+      inFlight += n;
+      return n;
+    }
+  }
 }
@@ -12,26 +12,35 @@ import java.util.concurrent.atomic.AtomicReference;
  * @date 2019/11/3
  */
 public final class LiveMaybe<T> extends Maybe<T> {
-  private Maybe<T> upstream;
-  private LifecycleOwner lifecycleOwner;
+  private final Maybe<T> upstream;
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy policy;
 
   public LiveMaybe(Maybe<T> upstream, LifecycleOwner lifecycleOwner) {
+    this(upstream, lifecycleOwner, LiveBufferPolicy.latest());
+  }
+
+  public LiveMaybe(Maybe<T> upstream, LifecycleOwner lifecycleOwner, LiveBufferPolicy policy) {
     this.upstream = upstream;
     this.lifecycleOwner = lifecycleOwner;
+    this.policy = policy;
   }
 
   @Override protected void subscribeActual(MaybeObserver<? super T> observer) {
-    upstream.subscribe(new LiveObserver<>(lifecycleOwner, observer));
+    LiveObserver<T> parent = new LiveObserver<>(lifecycleOwner, policy, observer);
+    parent.observeOwner();
+    upstream.subscribe(parent);
   }
 
   static class LiveObserver<T> extends AbsLiveDataObserver<T>
       implements MaybeObserver<T>, Disposable {
     private final MaybeObserver<? super T> downstream;
-    private LifecycleOwner lifecycleOwner;
+    private final LifecycleOwner lifecycleOwner;
     private final AtomicReference<Disposable> upstream = new AtomicReference<>();
 
-    LiveObserver(LifecycleOwner lifecycleOwner, final MaybeObserver<? super T> downstream) {
-      super(lifecycleOwner);
+    LiveObserver(LifecycleOwner lifecycleOwner, LiveBufferPolicy policy,
+        final MaybeObserver<? super T> downstream) {
+      super(lifecycleOwner, policy);
       this.downstream = downstream;
       this.lifecycleOwner = lifecycleOwner;
     }
@@ -46,13 +55,20 @@ public final class LiveMaybe<T> extends Maybe<T> {
     }
 
     @Override public void onError(Throwable e) {
-      removeObservers(lifecycleOwner);
-      downstream.onError(e);
+      onLiveError(e);
     }
 
     @Override public void onComplete() {
+      onLiveComplete();
+    }
+
+    @Override void onTerminate(Throwable e) {
       removeObservers(lifecycleOwner);
-      downstream.onComplete();
+      if (e == null) {
+        downstream.onComplete();
+      } else {
+        downstream.onError(e);
+      }
     }
 
     @Override public void dispose() {
@@ -12,16 +12,25 @@ import java.util.concurrent.atomic.AtomicReference;
  * @date 2019/11/3
  */
 public final class LiveObservable<T> extends Observable<T> {
-  private Observable<T> upstream;
-  private LifecycleOwner lifecycleOwner;
+  private final Observable<T> upstream;
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy policy;
 
   public LiveObservable(Observable<T> upstream, LifecycleOwner lifecycleOwner) {
+    this(upstream, lifecycleOwner, LiveBufferPolicy.latest());
+  }
+
+  public LiveObservable(Observable<T> upstream, LifecycleOwner lifecycleOwner,
+      LiveBufferPolicy policy) {
     this.upstream = upstream;
     this.lifecycleOwner = lifecycleOwner;
+    this.policy = policy;
   }
 
   @Override protected void subscribeActual(Observer<? super T> observer) {
-    upstream.subscribe(new LiveObserver<>(lifecycleOwner, observer));
+    LiveObserver<T> parent = new LiveObserver<>(lifecycleOwner, policy, observer);
+    parent.observeOwner();
+    upstream.subscribe(parent);
   }
 
   static class LiveObserver<T> extends AbsLiveDataObserver<T> implements Observer<T>, Disposable {
@@ -29,8 +38,9 @@ public final class LiveObservable<T> extends Observable<T> {
     private final LifecycleOwner lifecycleOwner;
     private final AtomicReference<Disposable> upstream = new AtomicReference<>();
 
-    LiveObserver(LifecycleOwner lifecycleOwner, final Observer<? super T> downstream) {
-      super(lifecycleOwner);
+    LiveObserver(LifecycleOwner lifecycleOwner, LiveBufferPolicy policy,
+        final Observer<? super T> downstream) {
+      super(lifecycleOwner, policy);
       this.lifecycleOwner = lifecycleOwner;
       this.downstream = downstream;
     }
@@ -45,13 +55,20 @@ public final class LiveObservable<T> extends Observable<T> {
     }
 
     @Override public void onError(Throwable e) {
-      removeObservers(lifecycleOwner);
-      downstream.onError(e);
+      onLiveError(e);
     }
 
     @Override public void onComplete() {
+      onLiveComplete();
+    }
+
+    @Override void onTerminate(Throwable e) {
       removeObservers(lifecycleOwner);
-      downstream.onComplete();
+      if (e == null) {
+        downstream.onComplete();
+      } else {
+        downstream.onError(e);
+      }
     }
 
     @Override public void dispose() {
@@ -1,6 +1,5 @@
 package com.yan.rxlifehelper.lifeobervable;
 
-import android.util.Log;
 import androidx.lifecycle.LifecycleOwner;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -8,23 +7,29 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.internal.disposables.DisposableHelper;
 import java.util.concurrent.atomic.AtomicReference;
 
-import static com.yan.rxlifehelper.RxLifeHelper.withLog;
-
 /**
  * @author genius
  * @date 2019/11/3
  */
 public final class LiveSingle<T> extends Single<T> {
-  private Single<T> upstream;
-  private LifecycleOwner lifecycleOwner;
+  private final Single<T> upstream;
+  private final LifecycleOwner lifecycleOwner;
+  private final LiveBufferPolicy policy;
 
   public LiveSingle(Single<T> upstream, LifecycleOwner lifecycleOwner) {
+    this(upstream, lifecycleOwner, LiveBufferPolicy.latest());
+  }
+
+  public LiveSingle(Single<T> upstream, LifecycleOwner lifecycleOwner, LiveBufferPolicy policy) {
     this.upstream = upstream;
     this.lifecycleOwner = lifecycleOwner;
+    this.policy = policy;
   }
 
   @Override protected void subscribeActual(SingleObserver<? super T> observer) {
-    upstream.subscribe(new LiveObserver<>(lifecycleOwner, observer));
+    LiveObserver<T> parent = new LiveObserver<>(lifecycleOwner, policy, observer);
+    parent.observeOwner();
+    upstream.subscribe(parent);
   }
 
   static class LiveObserver<T> extends AbsLiveDataObserver<T>
@@ -33,8 +38,9 @@ public final class LiveSingle<T> extends Single<T> {
     private final LifecycleOwner lifecycleOwner;
     private final AtomicReference<Disposable> upstream = new AtomicReference<>();
 
-    LiveObserver(final LifecycleOwner lifecycleOwner, final SingleObserver<? super T> downstream) {
-      super(lifecycleOwner);
+    LiveObserver(final LifecycleOwner lifecycleOwner, LiveBufferPolicy policy,
+        final SingleObserver<? super T> downstream) {
+      super(lifecycleOwner, policy);
       this.downstream = downstream;
       this.lifecycleOwner = lifecycleOwner;
     }
@@ -49,9 +55,10 @@ public final class LiveSingle<T> extends Single<T> {
     }
 
     @Override public void onError(Throwable e) {
-      if (withLog) {
-        Log.e("RxLifeHelper", e + "  " + lifecycleOwner);
-      }
+      onLiveError(e);
+    }
+
+    @Override void onTerminate(Throwable e) {
       removeObservers(lifecycleOwner);
       downstream.onError(e);
     }
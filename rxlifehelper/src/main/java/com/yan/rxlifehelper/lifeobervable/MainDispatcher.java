@@ -0,0 +1,74 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import android.os.Looper;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 共享的主线程派发队列
+ *
+ * 各个线程提交的 observe、removeObservers、分发等任务先进入多生产者队列，
+ * 同一批任务只占用一个主线程消息
+ *
+ * @author genius
+ */
+final class MainDispatcher {
+  private static final ConcurrentLinkedQueue<Runnable> QUEUE = new ConcurrentLinkedQueue<>();
+  private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+  private static final Runnable DRAIN = new Runnable() {
+    @Override public void run() {
+      SCHEDULED.set(false);
+      Runnable task;
+      while ((task = QUEUE.poll()) != null) {
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          // 剩下的任务放到下一个消息里执行
+          schedule();
+          throw e;
+        }
+      }
+    }
+  };
+
+  private MainDispatcher() {
+    throw new AssertionError("No instances.");
+  }
+
+  /**
+   * 没有主线程 Looper 时(JVM 单元测试、基准测试)视为主线程的线程，
+   * 与 RxAndroidPlugins 替换的 mainThread() 配合使用
+   */
+  private static volatile Thread fallbackMainThread;
+
+  /**
+   * 没有主线程 Looper 并且没有设置 fallbackMainThread 时一律视为非主线程，
+   * 任务交给 AndroidSchedulers.mainThread()，可以通过 RxAndroidPlugins 替换成 trampoline
+   */
+  static boolean isMain() {
+    Looper mainLooper = Looper.getMainLooper();
+    if (mainLooper == null) {
+      return fallbackMainThread == Thread.currentThread();
+    }
+    return mainLooper.getThread() == Thread.currentThread();
+  }
+
+  static void setFallbackMainThread(Thread thread) {
+    fallbackMainThread = thread;
+  }
+
+  /**
+   * 任务总是放到队列后面执行，保持提交顺序
+   */
+  static void dispatch(Runnable task) {
+    QUEUE.offer(task);
+    schedule();
+  }
+
+  private static void schedule() {
+    if (!QUEUE.isEmpty() && SCHEDULED.compareAndSet(false, true)) {
+      AndroidSchedulers.mainThread().scheduleDirect(DRAIN);
+    }
+  }
+}
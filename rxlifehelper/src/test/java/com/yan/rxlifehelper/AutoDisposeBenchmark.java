@@ -0,0 +1,65 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.subjects.BehaviorSubject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 一个 owner 上注册 N 个 Disposable 再销毁的总耗时:
+ * legacyTakeUntil 为之前 BehaviorSubject + takeUntil 的绑定，composite 为手动 CompositeDisposable
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoDisposeBenchmark {
+  @Param({ "1000" }) int streams;
+
+  private Observable<Integer> never;
+
+  @Setup public void setUp() {
+    never = Observable.never();
+  }
+
+  @Benchmark public void autoDispose() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    for (int i = 0; i < streams; i++) {
+      RxLifeHelper.autoDispose(never.subscribe(), owner, Lifecycle.Event.ON_DESTROY);
+    }
+    owner.destroy();
+  }
+
+  @Benchmark public void legacyTakeUntil() {
+    BehaviorSubject<Lifecycle.Event> lifecycle =
+        BehaviorSubject.createDefault(Lifecycle.Event.ON_RESUME);
+    LifecycleTransformer<Integer> transformer =
+        RxLifecycle.bindUntilEvent(lifecycle, Lifecycle.Event.ON_DESTROY);
+    for (int i = 0; i < streams; i++) {
+      never.compose(transformer).subscribe();
+    }
+    lifecycle.onNext(Lifecycle.Event.ON_DESTROY);
+  }
+
+  @Benchmark public void composite() {
+    CompositeDisposable disposables = new CompositeDisposable();
+    for (int i = 0; i < streams; i++) {
+      disposables.add(never.subscribe());
+    }
+    disposables.dispose();
+  }
+}
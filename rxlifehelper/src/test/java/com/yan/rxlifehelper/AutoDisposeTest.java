@@ -0,0 +1,84 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * autoDispose 的节点和流的节点挂在同一个链表上
+ */
+public class AutoDisposeTest {
+  private TestLifecycleOwner owner;
+  private RxLifeHelper.InnerLifeCycleManager manager;
+
+  @Before public void setUp() {
+    owner = TestLifecycleOwner.resumed();
+    manager = RxLifeHelper.getLifeManager(owner);
+  }
+
+  @Test public void disposesOnEvent() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    Disposable upstream = source.subscribe();
+    Disposable handle = RxLifeHelper.autoDispose(upstream, owner, Lifecycle.Event.ON_PAUSE);
+    assertEquals(1, manager.nodeCount());
+
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+
+    assertTrue(upstream.isDisposed());
+    assertTrue(handle.isDisposed());
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void disposeUnlinks() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    Disposable handle =
+        RxLifeHelper.autoDispose(source.subscribe(), owner, Lifecycle.Event.ON_DESTROY);
+
+    handle.dispose();
+
+    assertTrue(handle.isDisposed());
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void eventAlreadyHappenedDisposesImmediately() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    Disposable handle =
+        RxLifeHelper.autoDispose(source.subscribe(), owner, Lifecycle.Event.ON_RESUME);
+
+    assertTrue(handle.isDisposed());
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void destroyedOwnerDisposesImmediately() {
+    owner.destroy();
+    PublishSubject<Integer> source = PublishSubject.create();
+    Disposable handle =
+        RxLifeHelper.autoDispose(source.subscribe(), owner, Lifecycle.Event.ON_DESTROY);
+
+    assertTrue(handle.isDisposed());
+    assertFalse(source.hasObservers());
+  }
+
+  @Test public void destroyDisposesEveryPendingEvent() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    for (int i = 0; i < 1000; i++) {
+      RxLifeHelper.autoDispose(source.subscribe(), owner,
+          i % 2 == 0 ? Lifecycle.Event.ON_DESTROY : Lifecycle.Event.ON_START);
+    }
+    assertEquals(1000, manager.nodeCount());
+
+    owner.destroy();
+
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+}
@@ -0,0 +1,55 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 预热之后重复绑定同一个 owner 不分配对象
+ */
+public class BindAllocationTest {
+  private static final int BINDS = 10000;
+
+  private com.sun.management.ThreadMXBean threads;
+  private TestLifecycleOwner owner;
+
+  @Before public void setUp() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    threads = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    owner = TestLifecycleOwner.resumed();
+  }
+
+  @Test public void repeatedBindReturnsCachedTransformer() {
+    assertSame(RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY),
+        RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY));
+    assertSame(RxLifeHelper.bindLifeLiveOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY),
+        RxLifeHelper.bindLifeLiveOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY));
+  }
+
+  @Test public void bindDoesNotAllocateAfterWarmUp() {
+    bindLoop();
+    bindLoop();
+    long thread = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    bindLoop();
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+    // 读取计数本身不计入循环
+    assertEquals(0, allocated / BINDS);
+  }
+
+  private void bindLoop() {
+    for (int i = 0; i < BINDS; i++) {
+      RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY);
+      RxLifeHelper.bindLifeLiveOwnerUntilEvent(owner, Lifecycle.Event.ON_STOP);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.CompletableSubject;
+import java.util.concurrent.CancellationException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+
+public class CompletableCancelModeTest {
+  private static final Lifecycle.Event END = Lifecycle.Event.ON_DESTROY;
+
+  private final TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+  private final CompletableSubject source = CompletableSubject.create();
+
+  private TestObserver<Void> bind(CompletableCancelMode mode) {
+    return source.compose(RxLifeHelper.bindLifeOwnerUntilEvent(owner, END, mode)).test();
+  }
+
+  @Test public void disposeEndsWithoutTerminalSignal() {
+    TestObserver<Void> observer = bind(CompletableCancelMode.DISPOSE);
+
+    owner.destroy();
+
+    assertFalse(source.hasObservers());
+    observer.assertEmpty();
+  }
+
+  @Test public void completeCallsOnComplete() {
+    TestObserver<Void> observer = bind(CompletableCancelMode.COMPLETE);
+
+    owner.destroy();
+
+    assertFalse(source.hasObservers());
+    observer.assertResult();
+  }
+
+  @Test public void errorRaisesCancellationException() {
+    TestObserver<Void> observer = bind(CompletableCancelMode.ERROR);
+
+    owner.destroy();
+
+    assertFalse(source.hasObservers());
+    observer.assertFailure(CancellationException.class);
+  }
+
+  @Test public void upstreamCompletesBeforeEvent() {
+    TestObserver<Void> observer = bind(CompletableCancelMode.DISPOSE);
+    source.onComplete();
+
+    owner.destroy();
+
+    observer.assertResult();
+  }
+}
@@ -0,0 +1,102 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.functions.Predicate;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 同一个 tag 上挂着 N 个订阅者，senders 个线程同时 send 直到全部结束的耗时，
+ * legacySerializedSubject 为之前全局 Subject(并发 send 需要 toSerialized)逐个 filter 的做法
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentSendBenchmark {
+  private static final String TAG = "target";
+
+  @Param({ "1", "8" }) int senders;
+  @Param({ "10000" }) int subscribers;
+
+  private ExecutorService pool;
+  private TagRegistry registry;
+  private Subject<String> legacy;
+
+  @Setup(Level.Trial) public void startSenders() {
+    pool = Executors.newFixedThreadPool(senders);
+  }
+
+  @TearDown(Level.Trial) public void stopSenders() {
+    pool.shutdownNow();
+  }
+
+  @Setup(Level.Invocation) public void subscribe() {
+    registry = new TagRegistry();
+    legacy = PublishSubject.<String>create().toSerialized();
+    Predicate<String> isTarget = new Predicate<String>() {
+      @Override public boolean test(String s) {
+        return TAG.equals(s);
+      }
+    };
+    for (int i = 0; i < subscribers; i++) {
+      registry.observe(TAG).subscribe();
+      legacy.filter(isTarget).take(1).subscribe();
+    }
+  }
+
+  @Benchmark public void concurrentSend() throws Exception {
+    sendConcurrently(new Runnable() {
+      @Override public void run() {
+        registry.send(TAG);
+      }
+    });
+  }
+
+  @Benchmark public void legacySerializedSubject() throws Exception {
+    sendConcurrently(new Runnable() {
+      @Override public void run() {
+        legacy.onNext(TAG);
+      }
+    });
+  }
+
+  private void sendConcurrently(final Runnable send) throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(senders);
+    List<Future<?>> results = new ArrayList<>(senders);
+    for (int i = 0; i < senders; i++) {
+      results.add(pool.submit(new Callable<Void>() {
+        @Override public Void call() throws Exception {
+          barrier.await();
+          send.run();
+          return null;
+        }
+      }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 通过 RxLifeHelper 的 bindFilterTag/sendFilterTag，同时存活 N 个 tag
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterTagBenchmark {
+  @Param({ "10", "1000", "10000" }) int liveTags;
+
+  private Disposable[] live;
+  private Observable<Integer> never;
+
+  @Setup public void setUp() {
+    never = Observable.never();
+    live = new Disposable[liveTags];
+    for (int i = 0; i < liveTags; i++) {
+      live[i] = never.compose(RxLifeHelper.<Integer>bindFilterTag("FilterTagBenchmark-" + i))
+          .subscribe();
+    }
+  }
+
+  @TearDown public void tearDown() {
+    for (Disposable d : live) {
+      d.dispose();
+    }
+  }
+
+  /**
+   * 绑定一个新 tag 的流后取消
+   */
+  @Benchmark public void bindThenSend() {
+    never.compose(RxLifeHelper.<Integer>bindFilterTag("FilterTagBenchmark-target", false))
+        .subscribe();
+    RxLifeHelper.sendFilterTag("FilterTagBenchmark-target");
+  }
+
+  /**
+   * disposeBefore 的默认绑定，每次先取消上一次的流
+   */
+  @Benchmark public void rebind(Blackhole bh) {
+    bh.consume(never.compose(RxLifeHelper.<Integer>bindFilterTag("FilterTagBenchmark-rebind"))
+        .subscribe());
+  }
+
+  @Benchmark public void sendMiss() {
+    RxLifeHelper.sendFilterTag("FilterTagBenchmark-missing");
+  }
+}
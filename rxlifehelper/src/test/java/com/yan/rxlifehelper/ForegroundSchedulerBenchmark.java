@@ -0,0 +1,103 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Scheduler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 线程池被后台任务占满时，前台(RESUMED)页面提交一个任务到它开始执行的耗时:
+ * foreground 为 ForegroundScheduler，fifo 为同样线程数的固定线程池(先进先出)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForegroundSchedulerBenchmark {
+  private static final int THREADS = 2;
+  private static final long TASK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+  /**
+   * 同时在排队的后台任务个数
+   */
+  @Param({ "32" }) int backlog;
+
+  private TestLifecycleOwner owner;
+  private ForegroundScheduler foreground;
+  private Scheduler foregroundPage;
+  private ExecutorService fifo;
+  private volatile boolean stopped;
+
+  @Setup public void setUp() {
+    owner = TestLifecycleOwner.resumed();
+    foreground = ForegroundScheduler.create(THREADS, 0);
+    foregroundPage = foreground.forOwner(owner);
+    fifo = Executors.newFixedThreadPool(THREADS);
+    saturate(new Executor() {
+      @Override public void execute(Runnable command) {
+        foreground.scheduleDirect(command);
+      }
+    });
+    saturate(fifo);
+  }
+
+  /**
+   * 每个后台任务执行完马上提交下一个，队列里一直有 backlog 个任务
+   */
+  private void saturate(final Executor executor) {
+    for (int i = 0; i < backlog; i++) {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          if (stopped) {
+            return;
+          }
+          ForegroundSchedulerTest.spin(TASK_NANOS);
+          executor.execute(this);
+        }
+      });
+    }
+  }
+
+  @TearDown public void tearDown() {
+    stopped = true;
+    foreground.shutdown();
+    fifo.shutdownNow();
+    owner.destroy();
+  }
+
+  @Benchmark public void foreground() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    foregroundPage.scheduleDirect(countDown(started));
+    started.await();
+  }
+
+  @Benchmark public void fifo() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    fifo.execute(countDown(started));
+    started.await();
+  }
+
+  private static Runnable countDown(final CountDownLatch latch) {
+    return new Runnable() {
+      @Override public void run() {
+        latch.countDown();
+      }
+    };
+  }
+}
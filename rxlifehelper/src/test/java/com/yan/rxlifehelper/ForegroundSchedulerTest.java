@@ -0,0 +1,178 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ForegroundSchedulerTest {
+  private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+  private ForegroundScheduler scheduler;
+
+  @Before public void setUp() {
+    RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+      @Override public void accept(Throwable e) {
+        errors.add(e);
+      }
+    });
+  }
+
+  @After public void tearDown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void throwingTaskKeepsThread() throws Exception {
+    scheduler = ForegroundScheduler.create(1, 0);
+    scheduler.execute(null, new Runnable() {
+      @Override public void run() {
+        throw new IllegalStateException("boom");
+      }
+    });
+    assertTrue(runs(null));
+    assertEquals(1, errors.size());
+  }
+
+  /**
+   * 致命错误让线程退出后，线程数要减回去，之后的任务由新线程执行
+   */
+  @Test public void fatalErrorReplacesThread() throws Exception {
+    scheduler = ForegroundScheduler.create(1, 0);
+    Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+    final CountDownLatch died = new CountDownLatch(1);
+    Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+      @Override public void uncaughtException(Thread t, Throwable e) {
+        died.countDown();
+      }
+    });
+    try {
+      scheduler.execute(null, new Runnable() {
+        @Override public void run() {
+          throw new LinkageError("fatal");
+        }
+      });
+      assertTrue(died.await(5, TimeUnit.SECONDS));
+      assertTrue(runs(null));
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(handler);
+    }
+  }
+
+  @Test public void shutdownUnlinksStartNodes() throws Exception {
+    scheduler = ForegroundScheduler.create(1, TimeUnit.MINUTES.toMillis(1));
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeHelper.InnerLifeCycleManager manager = RxLifeHelper.getLifeManager(owner);
+    owner.moveTo(Lifecycle.State.CREATED);
+    final AtomicBoolean ran = new AtomicBoolean();
+    scheduler.forOwner(owner).scheduleDirect(new Runnable() {
+      @Override public void run() {
+        ran.set(true);
+      }
+    });
+    long deadline = System.currentTimeMillis() + 5000;
+    while (manager.nodeCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(1, manager.nodeCount());
+
+    scheduler.shutdown();
+
+    assertEquals(0, manager.nodeCount());
+    assertFalse(ran.get());
+  }
+
+  @Test public void disposingWorkerCancelsDelayedTasks() throws Exception {
+    scheduler = ForegroundScheduler.create(1, 0);
+    Scheduler.Worker worker = scheduler.createWorker();
+    final AtomicBoolean ran = new AtomicBoolean();
+    Disposable delayed = worker.schedule(new Runnable() {
+      @Override public void run() {
+        ran.set(true);
+      }
+    }, 50, TimeUnit.MILLISECONDS);
+
+    worker.dispose();
+
+    // 延时的计时在 dispose 时就取消，不会留在 single 线程上等到时间
+    assertTrue(delayed.isDisposed());
+    Thread.sleep(150);
+    assertFalse(ran.get());
+  }
+
+  @Test public void delayedTaskRunsAndCanBeCancelled() throws Exception {
+    scheduler = ForegroundScheduler.create(1, 0);
+    Scheduler.Worker worker = scheduler.createWorker();
+    final AtomicBoolean cancelledRan = new AtomicBoolean();
+    final CountDownLatch ran = new CountDownLatch(1);
+    Disposable cancelled = worker.schedule(new Runnable() {
+      @Override public void run() {
+        cancelledRan.set(true);
+      }
+    }, 20, TimeUnit.MILLISECONDS);
+    worker.schedule(new Runnable() {
+      @Override public void run() {
+        ran.countDown();
+      }
+    }, 20, TimeUnit.MILLISECONDS);
+
+    cancelled.dispose();
+
+    assertTrue(ran.await(5, TimeUnit.SECONDS));
+    assertTrue(cancelled.isDisposed());
+    assertFalse(cancelledRan.get());
+    worker.dispose();
+  }
+
+  /**
+   * RESUMED 的任务源源不断时，其他 lane 的任务等待超过 aging 后也能执行
+   */
+  @Test public void agingPreventsStarvation() throws Exception {
+    scheduler = ForegroundScheduler.create(1, 0, 50);
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    final Scheduler.Worker flood = scheduler.forOwner(owner).createWorker();
+    flood.schedule(new Runnable() {
+      @Override public void run() {
+        spin(TimeUnit.MILLISECONDS.toNanos(2));
+        flood.schedule(this);
+        flood.schedule(this);
+      }
+    });
+    try {
+      assertTrue(runs(null));
+    } finally {
+      flood.dispose();
+    }
+  }
+
+  private boolean runs(RxLifeHelper.InnerLifeCycleManager manager) throws InterruptedException {
+    final CountDownLatch ran = new CountDownLatch(1);
+    scheduler.execute(manager, new Runnable() {
+      @Override public void run() {
+        ran.countDown();
+      }
+    });
+    return ran.await(5, TimeUnit.SECONDS);
+  }
+
+  static void spin(long nanos) {
+    long end = System.nanoTime() + nanos;
+    while (System.nanoTime() < end) {
+      // busy
+    }
+  }
+}
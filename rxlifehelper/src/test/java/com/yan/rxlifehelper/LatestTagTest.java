@@ -0,0 +1,66 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+import java.util.concurrent.CancellationException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatestTagTest {
+  private final TagGenerations generations = new TagGenerations();
+
+  private <T> LatestTagTransformer<T> latest(String tag) {
+    return new LatestTagTransformer<>(generations, tag, null);
+  }
+
+  @Test public void onlyLatestSubscriptionDelivers() {
+    PublishSubject<Integer> first = PublishSubject.create();
+    PublishSubject<Integer> second = PublishSubject.create();
+    TestObserver<Integer> stale = first.compose(this.<Integer>latest("search")).test();
+    TestObserver<Integer> current = second.compose(this.<Integer>latest("search")).test();
+
+    first.onNext(1);
+    second.onNext(2);
+
+    stale.assertResult();
+    current.assertValue(2);
+    assertEquals(1, generations.size());
+  }
+
+  @Test public void staleSingleIsCancelled() {
+    SingleSubject<Integer> first = SingleSubject.create();
+    SingleSubject<Integer> second = SingleSubject.create();
+    TestObserver<Integer> stale = first.compose(this.<Integer>latest("search")).test();
+    TestObserver<Integer> current = second.compose(this.<Integer>latest("search")).test();
+
+    first.onSuccess(1);
+    second.onSuccess(2);
+
+    stale.assertError(CancellationException.class);
+    current.assertResult(2);
+    assertEquals(0, generations.size());
+  }
+
+  /**
+   * 动态生成的 tag 在最后一个订阅结束后移除
+   */
+  @Test public void generationRemovedWhenLastSubscriptionEnds() {
+    for (int i = 0; i < 1000; i++) {
+      String tag = "query-" + i;
+      Observable.just(i).compose(this.<Integer>latest(tag)).test().assertResult(i);
+      PublishSubject.<Integer>create().compose(this.<Integer>latest(tag)).test().dispose();
+    }
+    assertEquals(0, generations.size());
+  }
+
+  @Test public void newSubscriptionAfterRemovalDelivers() {
+    LatestTagTransformer<Integer> transformer = latest("reuse");
+    Observable.just(1).compose(transformer).test().assertResult(1);
+    assertEquals(0, generations.size());
+
+    Observable.just(2).compose(transformer).test().assertResult(2);
+  }
+}
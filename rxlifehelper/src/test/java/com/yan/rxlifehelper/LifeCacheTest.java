@@ -0,0 +1,174 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.subjects.MaybeSubject;
+import io.reactivex.subjects.SingleSubject;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * cacheOf 按 owner 和 event 返回同一个缓存，直到该 event 再次发生；RxLifeCache 的命中、过期和淘汰
+ */
+public class LifeCacheTest {
+  private final ManualClock clock = new ManualClock();
+
+  @After public void tearDown() {
+    RxLifeHelper.setTracer(null);
+  }
+
+  @Test public void sameCacheUntilEvent() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeCache cache = RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_STOP);
+    assertSame(cache, RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_STOP));
+
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    assertNotSame(cache, RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_STOP));
+  }
+
+  /**
+   * 刚刚发生的 event 也保存，等下一次该 event 清空
+   */
+  @Test public void eventJustHappenedIsStillCached() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeHelper.InnerLifeCycleManager manager = RxLifeHelper.getLifeManager(owner);
+    RxLifeCache cache = RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_RESUME);
+    assertSame(cache, RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_RESUME));
+    assertEquals(1, manager.nodeCount());
+
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    assertSame(cache, RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_RESUME));
+
+    owner.handle(Lifecycle.Event.ON_RESUME);
+    RxLifeCache next = RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_RESUME);
+    assertNotSame(cache, next);
+    assertSame(next, RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_RESUME));
+  }
+
+  @Test public void destroyDropsCaches() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeHelper.InnerLifeCycleManager manager = RxLifeHelper.getLifeManager(owner);
+    RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_DESTROY);
+    RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_START);
+
+    owner.destroy();
+
+    assertEquals(0, manager.nodeCount());
+    assertNotSame(RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_DESTROY),
+        RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_DESTROY));
+  }
+
+  @Test public void cacheNodeIsNotTraced() {
+    CountingTracer tracer = new CountingTracer();
+    RxLifeHelper.setTracer(tracer);
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_STOP);
+    RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_DESTROY);
+
+    owner.moveTo(Lifecycle.State.CREATED);
+    owner.destroy();
+
+    assertEquals(0, tracer.lifecycleDisposeCount());
+    assertEquals(0, tracer.liveBindingCount());
+  }
+
+  @Test public void hitSkipsUpstream() {
+    RxLifeCache cache = RxLifeCache.create(4, clock);
+    SingleSubject<String> first = SingleSubject.create();
+    first.compose(RxLifeHelper.<String>bindCached(cache, "user", RxLifeCache.NO_TTL))
+        .test()
+        .assertEmpty();
+    first.onSuccess("a");
+
+    SingleSubject<String> second = SingleSubject.create();
+    second.compose(RxLifeHelper.<String>bindCached(cache, "user", RxLifeCache.NO_TTL))
+        .test()
+        .assertResult("a");
+
+    assertFalse(second.hasObservers());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test public void missSubscribesUpstreamAndStores() {
+    RxLifeCache cache = RxLifeCache.create(4, clock);
+    Maybe.just(1)
+        .compose(RxLifeHelper.<Integer>bindCached(cache, "a", RxLifeCache.NO_TTL))
+        .test()
+        .assertResult(1);
+    // 空的 Maybe 不缓存
+    MaybeSubject<Integer> empty = MaybeSubject.create();
+    empty.compose(RxLifeHelper.<Integer>bindCached(cache, "b", RxLifeCache.NO_TTL)).test();
+    assertTrue(empty.hasObservers());
+    empty.onComplete();
+
+    assertEquals(2, cache.missCount());
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.get("a"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test public void expiredEntryIsMissed() {
+    RxLifeCache cache = RxLifeCache.create(4, clock);
+    Single.just("a").compose(RxLifeHelper.<String>bindCached(cache, "user", 100)).test();
+    clock.now = 99;
+    assertEquals("a", cache.get("user"));
+
+    clock.now = 100;
+    Single.just("b")
+        .compose(RxLifeHelper.<String>bindCached(cache, "user", 100))
+        .test()
+        .assertResult("b");
+
+    assertEquals(1, cache.evictionCount());
+    assertEquals("b", cache.get("user"));
+  }
+
+  @Test public void leastRecentlyUsedIsEvicted() {
+    RxLifeCache cache = RxLifeCache.create(2, clock);
+    cache.put("a", 1, RxLifeCache.NO_TTL);
+    cache.put("b", 2, RxLifeCache.NO_TTL);
+    // 访问后 a 变为最近使用
+    assertEquals(1, cache.get("a"));
+    cache.put("c", 3, RxLifeCache.NO_TTL);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.evictionCount());
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.get("a"));
+    assertEquals(3, cache.get("c"));
+  }
+
+  @Test public void ownerEventClearsCache() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    RxLifeCache cache = RxLifeHelper.cacheOf(owner, Lifecycle.Event.ON_STOP);
+    Single.just("a").compose(RxLifeHelper.<String>bindCached(cache, "user", 0)).test();
+    assertEquals(1, cache.size());
+
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.evictionCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void negativeTtlIsRejected() {
+    RxLifeHelper.bindCached(RxLifeCache.create(4, clock), "user", -1);
+  }
+
+  static final class ManualClock implements RxLifeCache.Clock {
+    long now;
+
+    @Override public long millis() {
+      return now;
+    }
+  }
+}
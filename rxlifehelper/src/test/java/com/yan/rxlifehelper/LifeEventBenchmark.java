@@ -0,0 +1,84 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.subjects.BehaviorSubject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 挂在 manager 上的节点与之前 BehaviorSubject + filter + takeUntil 的对比，
+ * legacy* 为之前的 LifecycleTransformer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LifeEventBenchmark {
+  private static final int ITEMS = 1000;
+
+  private TestLifecycleOwner owner;
+  private BehaviorSubject<Lifecycle.Event> lifecycle;
+  private LifecycleTransformer<Integer> node;
+  private LifecycleTransformer<Integer> legacy;
+  private Observable<Integer> never;
+  private Observable<Integer> range;
+
+  @Setup public void setUp() {
+    owner = TestLifecycleOwner.resumed();
+    lifecycle = BehaviorSubject.createDefault(Lifecycle.Event.ON_RESUME);
+    node = RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY);
+    legacy = RxLifecycle.bindUntilEvent(lifecycle, Lifecycle.Event.ON_DESTROY);
+    never = Observable.never();
+    range = Observable.range(0, ITEMS);
+  }
+
+  @TearDown public void tearDown() {
+    owner.destroy();
+  }
+
+  @Benchmark public Object bind() {
+    return RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY);
+  }
+
+  @Benchmark public void subscribeDispose() {
+    never.compose(node).subscribe().dispose();
+  }
+
+  @Benchmark public void legacySubscribeDispose() {
+    never.compose(legacy).subscribe().dispose();
+  }
+
+  @Benchmark @OperationsPerInvocation(ITEMS) public void perItem(Blackhole bh) {
+    consume(range.compose(node), bh);
+  }
+
+  @Benchmark @OperationsPerInvocation(ITEMS) public void legacyPerItem(Blackhole bh) {
+    consume(range.compose(legacy), bh);
+  }
+
+  private static void consume(Observable<Integer> stream, final Blackhole bh) {
+    Disposable d = stream.subscribe(new Consumer<Integer>() {
+      @Override public void accept(Integer item) {
+        bh.consume(item);
+      }
+    });
+    bh.consume(d);
+  }
+}
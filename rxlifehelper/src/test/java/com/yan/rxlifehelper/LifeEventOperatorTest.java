@@ -0,0 +1,161 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subjects.CompletableSubject;
+import io.reactivex.subjects.MaybeSubject;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.concurrent.CancellationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 每个流只在 manager 上挂一个节点，目标 event 或 dispose 时摘除
+ */
+public class LifeEventOperatorTest {
+  private TestLifecycleOwner owner;
+  private RxLifeHelper.InnerLifeCycleManager manager;
+
+  @Before public void setUp() {
+    owner = TestLifecycleOwner.resumed();
+    manager = RxLifeHelper.getLifeManager(owner);
+  }
+
+  private <T> LifecycleTransformer<T> untilStop() {
+    return RxLifeHelper.bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_STOP);
+  }
+
+  @Test public void observableCompletesOnEvent() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>untilStop()).test();
+    assertEquals(1, manager.nodeCount());
+
+    source.onNext(1);
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    source.onNext(2);
+    owner.handle(Lifecycle.Event.ON_STOP);
+
+    observer.assertValues(1, 2).assertComplete();
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void flowableCompletesOnEvent() {
+    PublishProcessor<Integer> source = PublishProcessor.create();
+    TestSubscriber<Integer> subscriber = source.compose(this.<Integer>untilStop()).test();
+
+    source.onNext(1);
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    subscriber.assertValues(1).assertComplete();
+    assertFalse(source.hasSubscribers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void singleErrorsOnEvent() {
+    SingleSubject<Integer> source = SingleSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>untilStop()).test();
+
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    observer.assertError(CancellationException.class);
+    assertFalse(source.hasObservers());
+  }
+
+  @Test public void maybeCompletesOnEvent() {
+    MaybeSubject<Integer> source = MaybeSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>untilStop()).test();
+
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    observer.assertNoValues().assertComplete();
+    assertFalse(source.hasObservers());
+  }
+
+  @Test public void completableErrorsOnEvent() {
+    CompletableSubject source = CompletableSubject.create();
+    TestObserver<Void> observer = source.compose(untilStop()).test();
+
+    owner.moveTo(Lifecycle.State.CREATED);
+
+    observer.assertError(CancellationException.class);
+    assertFalse(source.hasObservers());
+  }
+
+  @Test public void disposeRemovesNode() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<Integer> first = source.compose(this.<Integer>untilStop()).test();
+    TestObserver<Integer> second = source.compose(this.<Integer>untilStop()).test();
+    assertEquals(2, manager.nodeCount());
+
+    first.dispose();
+    assertEquals(1, manager.nodeCount());
+    second.dispose();
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void upstreamTerminationRemovesNode() {
+    SingleSubject<Integer> source = SingleSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>untilStop()).test();
+
+    source.onSuccess(1);
+
+    observer.assertResult(1);
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void bindingToLastEventEndsImmediately() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<Integer> observer = source
+        .compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_RESUME))
+        .test();
+
+    observer.assertComplete();
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void destroyEndsEveryStream() {
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<Integer> observer = source
+        .compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY))
+        .test();
+
+    owner.destroy();
+
+    observer.assertComplete();
+    assertFalse(source.hasObservers());
+  }
+
+  /**
+   * 目标 event 在销毁前不会再发生的流，在 ON_DESTROY 时一起结束
+   */
+  @Test public void pendingEventEndsOnDestroy() {
+    PublishSubject<Integer> observable = PublishSubject.create();
+    SingleSubject<Integer> single = SingleSubject.create();
+    TestObserver<Integer> observableObserver = observable.compose(
+        RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_START)).test();
+    TestObserver<Integer> singleObserver = single.compose(
+        RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_CREATE)).test();
+    assertEquals(2, manager.nodeCount());
+
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    owner.handle(Lifecycle.Event.ON_STOP);
+    observableObserver.assertNotTerminated();
+    singleObserver.assertNotTerminated();
+
+    owner.handle(Lifecycle.Event.ON_DESTROY);
+
+    observableObserver.assertResult();
+    singleObserver.assertError(CancellationException.class);
+    assertFalse(observable.hasObservers());
+    assertFalse(single.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+}
@@ -0,0 +1,77 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多个线程同时绑定、dispose，生命周期线程同时分发 event，结束后不留下节点
+ */
+public class LifeEventStressTest {
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 5000;
+
+  @Test public void concurrentAddAndDispatch() throws Exception {
+    final TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    final RxLifeHelper.InnerLifeCycleManager manager = RxLifeHelper.getLifeManager(owner);
+    final Observable<Integer> never = Observable.never();
+    final CyclicBarrier barrier = new CyclicBarrier(THREADS + 1);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    List<TestObserver<Integer>> alive = new ArrayList<>();
+    try {
+      List<Future<List<TestObserver<Integer>>>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(pool.submit(new Callable<List<TestObserver<Integer>>>() {
+          @Override public List<TestObserver<Integer>> call() throws Exception {
+            barrier.await();
+            List<TestObserver<Integer>> kept = new ArrayList<>();
+            for (int i = 0; i < ROUNDS; i++) {
+              Lifecycle.Event event =
+                  i % 2 == 0 ? Lifecycle.Event.ON_PAUSE : Lifecycle.Event.ON_DESTROY;
+              TestObserver<Integer> observer =
+                  never.compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, event))
+                      .test();
+              if (i % 3 == 0) {
+                observer.dispose();
+              } else {
+                kept.add(observer);
+              }
+            }
+            return kept;
+          }
+        }));
+      }
+      // 当前线程作为生命周期线程
+      barrier.await();
+      for (Future<List<TestObserver<Integer>>> result : results) {
+        while (!result.isDone()) {
+          owner.handle(Lifecycle.Event.ON_PAUSE);
+          owner.handle(Lifecycle.Event.ON_RESUME);
+        }
+        alive.addAll(result.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    owner.destroy();
+
+    for (TestObserver<Integer> observer : alive) {
+      assertTrue(observer.isTerminated());
+      observer.assertNoErrors();
+    }
+    assertEquals(0, manager.nodeCount());
+  }
+}
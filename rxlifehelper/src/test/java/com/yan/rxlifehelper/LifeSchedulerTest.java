@@ -0,0 +1,125 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LifeSchedulerTest {
+  private final AtomicInteger runs = new AtomicInteger();
+  private final Runnable counting = new Runnable() {
+    @Override public void run() {
+      runs.incrementAndGet();
+    }
+  };
+  private ScheduledThreadPoolExecutor executor;
+
+  @Before public void setUp() {
+    executor = new ScheduledThreadPoolExecutor(1);
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void queuedAndDelayedTasksAreSkippedOnEvent() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    TestScheduler delegate = new TestScheduler();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, delegate);
+    Scheduler.Worker worker = scheduler.createWorker();
+    worker.schedule(counting);
+    worker.schedule(counting);
+    worker.schedule(counting, 1, TimeUnit.SECONDS);
+
+    owner.destroy();
+    delegate.advanceTimeBy(2, TimeUnit.SECONDS);
+
+    assertEquals(0, runs.get());
+    assertEquals(3, scheduler.skippedCount());
+    assertTrue(scheduler.isTerminated());
+    assertTrue(worker.isDisposed());
+  }
+
+  @Test public void tasksAfterEventAreSkipped() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    TestScheduler delegate = new TestScheduler();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, delegate);
+    owner.destroy();
+
+    scheduler.scheduleDirect(counting);
+    scheduler.createWorker().schedule(counting, 1, TimeUnit.SECONDS);
+    delegate.advanceTimeBy(2, TimeUnit.SECONDS);
+
+    assertEquals(0, runs.get());
+    assertEquals(2, scheduler.skippedCount());
+  }
+
+  @Test public void eventReleasesDelayedTasksInDelegate() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, Schedulers.from(executor));
+    Scheduler.Worker worker = scheduler.createWorker();
+    worker.schedule(counting, 1, TimeUnit.HOURS);
+    worker.schedule(counting, 1, TimeUnit.HOURS);
+    assertEquals(2, executor.getQueue().size());
+
+    owner.destroy();
+
+    assertEquals(0, executor.getQueue().size());
+    assertEquals(2, scheduler.skippedCount());
+  }
+
+  @Test public void disposedTaskIsReleasedInDelegate() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, Schedulers.from(executor));
+    Disposable task = scheduler.createWorker().schedule(counting, 1, TimeUnit.HOURS);
+    assertEquals(1, executor.getQueue().size());
+
+    task.dispose();
+
+    assertTrue(task.isDisposed());
+    assertEquals(0, executor.getQueue().size());
+    owner.destroy();
+    assertEquals(0, scheduler.skippedCount());
+  }
+
+  @Test public void manualDisposeIsNotSkipped() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    TestScheduler delegate = new TestScheduler();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, delegate);
+    Scheduler.Worker worker = scheduler.createWorker();
+    worker.schedule(counting);
+    worker.dispose();
+    scheduler.createWorker().schedule(counting, 1, TimeUnit.SECONDS);
+    scheduler.shutdown();
+    scheduler.scheduleDirect(counting);
+
+    owner.destroy();
+    delegate.advanceTimeBy(2, TimeUnit.SECONDS);
+
+    assertEquals(0, runs.get());
+    assertEquals(0, scheduler.skippedCount());
+  }
+
+  @Test public void tasksRunBeforeEvent() {
+    TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+    TestScheduler delegate = new TestScheduler();
+    LifeScheduler scheduler = RxLifeHelper.scheduler(owner, delegate);
+    scheduler.scheduleDirect(counting, 1, TimeUnit.SECONDS);
+    delegate.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    owner.destroy();
+
+    assertEquals(1, runs.get());
+    assertEquals(0, scheduler.skippedCount());
+  }
+}
@@ -0,0 +1,62 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 一个 owner 上绑定 N 个流时一次生命周期变化的开销:
+ * unrelatedTransition 只经过与这些流无关的 event，fanOut 结束全部 N 个流并重新绑定
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LifecycleFanOutBenchmark {
+  @Param({ "1", "100", "1000" }) int streams;
+
+  private TestLifecycleOwner owner;
+  private Observable<Integer> never;
+
+  @Setup(Level.Trial) public void setUp() {
+    owner = TestLifecycleOwner.resumed();
+    never = Observable.never();
+    for (int i = 0; i < streams; i++) {
+      never.compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner,
+          Lifecycle.Event.ON_DESTROY)).subscribe();
+    }
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    owner.destroy();
+  }
+
+  @Benchmark public void unrelatedTransition() {
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    owner.handle(Lifecycle.Event.ON_RESUME);
+  }
+
+  @Benchmark public void fanOut() {
+    for (int i = 0; i < streams; i++) {
+      never.compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner,
+          Lifecycle.Event.ON_PAUSE)).subscribe();
+    }
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    owner.handle(Lifecycle.Event.ON_RESUME);
+  }
+}
@@ -0,0 +1,65 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.lifeobervable.LiveBufferPolicy;
+import io.reactivex.Observable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * bindUntilLifeLiveEvent 的单个数据开销，主线程任务在当前线程直接执行，
+ * direct 为不经过 live 的同一条流
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiveEventBenchmark {
+  private static final int ITEMS = 1000;
+
+  private TestLifecycleOwner owner;
+  private Observable<Integer> range;
+
+  @Setup public void setUp() {
+    TrampolineMain.install();
+    owner = TestLifecycleOwner.resumed();
+    range = Observable.range(0, ITEMS);
+  }
+
+  @TearDown public void tearDown() {
+    owner.destroy();
+    TrampolineMain.reset();
+  }
+
+  @Benchmark @OperationsPerInvocation(ITEMS) public void latest(Blackhole bh) {
+    bh.consume(range.compose(
+        RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY))
+        .blockingLast());
+  }
+
+  @Benchmark @OperationsPerInvocation(ITEMS) public void unbounded(Blackhole bh) {
+    bh.consume(range.compose(
+        RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY,
+            LiveBufferPolicy.unbounded())).blockingLast());
+  }
+
+  @Benchmark @OperationsPerInvocation(ITEMS) public void direct(Blackhole bh) {
+    bh.consume(range.compose(
+        RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY))
+        .blockingLast());
+  }
+}
@@ -0,0 +1,144 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleRegistry;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多个线程同时绑定、销毁不同的 owner，以及同一个 owner 的第一次绑定在多个线程上竞争
+ */
+public class OwnerRegistryStressTest {
+  private static final int THREADS = 8;
+  private static final int OWNERS_PER_THREAD = 2000;
+
+  @Test public void concurrentBindAndDestroy() throws Exception {
+    int before = RxLifeHelper.lifeManagerCount();
+    final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(pool.submit(new Callable<Integer>() {
+          @Override public Integer call() throws Exception {
+            barrier.await();
+            return bindAndDestroy();
+          }
+        }));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(OWNERS_PER_THREAD, (int) result.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    // 销毁的 owner 全部移除，其他测试留下的 owner 也可能在这期间被回收
+    assertTrue(RxLifeHelper.lifeManagerCount() <= before);
+  }
+
+  @Test public void concurrentFirstBindSharesOneManager() throws Exception {
+    int before = RxLifeHelper.lifeManagerCount();
+    for (int round = 0; round < 200; round++) {
+      final TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+      final PublishSubject<Integer> source = PublishSubject.create();
+      final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+      ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+      List<Future<TestObserver<Integer>>> results = new ArrayList<>();
+      try {
+        for (int t = 0; t < THREADS; t++) {
+          results.add(pool.submit(new Callable<TestObserver<Integer>>() {
+            @Override public TestObserver<Integer> call() throws Exception {
+              barrier.await();
+              // 同一个 owner 的第一次绑定在多个线程上竞争
+              return source.compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner,
+                  Lifecycle.Event.ON_DESTROY)).test();
+            }
+          }));
+        }
+        List<TestObserver<Integer>> observers = new ArrayList<>();
+        for (Future<TestObserver<Integer>> result : results) {
+          observers.add(result.get(60, TimeUnit.SECONDS));
+        }
+        // 只有一个 manager 注册到 owner 上，所有流都挂在它上面
+        assertEquals(1, ((LifecycleRegistry) owner.getLifecycle()).getObserverCount());
+        assertEquals(THREADS, RxLifeHelper.getLifeManager(owner).nodeCount());
+        owner.destroy();
+        for (TestObserver<Integer> observer : observers) {
+          observer.assertComplete();
+        }
+        assertFalse(source.hasObservers());
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+    assertTrue(RxLifeHelper.lifeManagerCount() <= before);
+  }
+
+  private static int bindAndDestroy() {
+    int disposed = 0;
+    List<TestLifecycleOwner> alive = new ArrayList<>();
+    List<PublishSubject<Integer>> sources = new ArrayList<>();
+    List<TestObserver<Integer>> observers = new ArrayList<>();
+    for (int i = 0; i < OWNERS_PER_THREAD; i++) {
+      TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+      PublishSubject<Integer> source = PublishSubject.create();
+      observers.add(source.compose(
+          RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, Lifecycle.Event.ON_DESTROY))
+          .test());
+      assertSame(RxLifeHelper.getLifeManager(owner), RxLifeHelper.getLifeManager(owner));
+      alive.add(owner);
+      sources.add(source);
+      // 交替销毁，让放入和移除交织在一起
+      if (i % 2 == 1) {
+        disposed += destroy(alive, sources, observers, i - 1);
+        disposed += destroy(alive, sources, observers, i);
+      }
+    }
+    return disposed;
+  }
+
+  private static int destroy(List<TestLifecycleOwner> owners,
+      List<PublishSubject<Integer>> sources, List<TestObserver<Integer>> observers, int index) {
+    owners.get(index).destroy();
+    observers.get(index).assertComplete();
+    assertFalse(sources.get(index).hasObservers());
+    owners.set(index, null);
+    sources.set(index, null);
+    observers.set(index, null);
+    return 1;
+  }
+
+  @Test public void collectedOwnersDoNotPinManagers() throws Exception {
+    int before = RxLifeHelper.lifeManagerCount();
+    for (int i = 0; i < 1000; i++) {
+      TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+      Lifecycle.Event event = Lifecycle.Event.ON_DESTROY;
+      PublishSubject.<Integer>create()
+          .compose(RxLifeHelper.<Integer>bindLifeOwnerUntilEvent(owner, event))
+          .subscribe();
+    }
+    assertTrue(RxLifeHelper.lifeManagerCount() > before);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (RxLifeHelper.lifeManagerCount() > before && System.nanoTime() < deadline) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    // 其他测试留下的 owner 也可能在这期间被回收
+    assertTrue(RxLifeHelper.lifeManagerCount() <= before);
+  }
+}
@@ -0,0 +1,144 @@
+package com.yan.rxlifehelper
+
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.Lifecycle.Event.ON_STOP
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import kotlinx.coroutines.test.resetMain
+import kotlinx.coroutines.test.setMain
+import kotlinx.coroutines.yield
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Dispatchers.Main 替换为 TestCoroutineDispatcher，在测试线程上执行
+ */
+@ExperimentalCoroutinesApi
+class RxLifeExtensionsTest {
+  private val main = TestCoroutineDispatcher()
+
+  @Before fun setUp() {
+    Dispatchers.setMain(main)
+  }
+
+  @After fun tearDown() {
+    Dispatchers.resetMain()
+    main.cleanupTestCoroutines()
+  }
+
+  @Test fun cancelAtEventCancelsJob() {
+    val owner = TestLifecycleOwner.resumed()
+    val manager = RxLifeHelper.getLifeManager(owner)
+    val job = Job().cancelAtEvent(owner, ON_STOP)
+    assertEquals(1, manager.nodeCount())
+
+    owner.moveTo(Lifecycle.State.CREATED)
+
+    assertTrue(job.isCancelled)
+    assertEquals(0, manager.nodeCount())
+  }
+
+  @Test fun completedJobLeavesManager() {
+    val owner = TestLifecycleOwner.resumed()
+    val manager = RxLifeHelper.getLifeManager(owner)
+    val job = Job().cancelAtEvent(owner, ON_STOP)
+
+    job.complete()
+
+    assertEquals(0, manager.nodeCount())
+    owner.moveTo(Lifecycle.State.CREATED)
+    assertFalse(job.isCancelled)
+  }
+
+  @Test fun cancelByTagCancelsJob() {
+    val job = Job().cancelByTag("kt/job")
+    RxLifeHelper.sendFilterTag("kt/other")
+    assertFalse(job.isCancelled)
+
+    RxLifeHelper.sendFilterTag("kt/job")
+
+    assertTrue(job.isCancelled)
+  }
+
+  @Test fun cancelByTagDisposesPreviousJob() {
+    val first = Job().cancelByTag("kt/latest")
+    val second = Job().cancelByTag("kt/latest")
+    assertTrue(first.isCancelled)
+    assertFalse(second.isCancelled)
+
+    val kept = Job().cancelByTag("kt/latest", disposeBefore = false)
+    assertFalse(second.isCancelled)
+
+    RxLifeHelper.sendFilterTag("kt/latest")
+    assertTrue(second.isCancelled)
+    assertTrue(kept.isCancelled)
+  }
+
+  @Test fun filterTagScopeCancelsChildrenByGroup() {
+    val list = filterTagScope("kt/feed/list").launch { delay(Long.MAX_VALUE) }
+    val detail = filterTagScope("kt/feed/detail").launch { delay(Long.MAX_VALUE) }
+    assertTrue(list.isActive)
+    assertTrue(detail.isActive)
+
+    RxLifeHelper.sendFilterTag("kt/feed/")
+
+    assertTrue(list.isCancelled)
+    assertTrue(detail.isCancelled)
+  }
+
+  @Test fun bindUntilCompletesNormallyOnEvent() {
+    val owner = TestLifecycleOwner.resumed()
+    val values = mutableListOf<Int>()
+    var completed = false
+    val job = CoroutineScope(main).launch {
+      flow {
+        emit(1)
+        delay(Long.MAX_VALUE)
+      }.bindUntil(owner, ON_STOP).collect { values.add(it) }
+      completed = true
+    }
+    assertEquals(listOf(1), values)
+
+    owner.moveTo(Lifecycle.State.CREATED)
+
+    assertTrue(completed)
+    assertTrue(job.isCompleted)
+    assertFalse(job.isCancelled)
+    assertEquals(0, RxLifeHelper.getLifeManager(owner).nodeCount())
+  }
+
+  /**
+   * runBlocking 的事件循环不是主线程，挂节点要等主线程执行
+   */
+  @Test fun bindUntilRegistersOnMain() = runBlocking<Unit> {
+    val owner = TestLifecycleOwner.resumed()
+    val manager = RxLifeHelper.getLifeManager(owner)
+    val values = mutableListOf<Int>()
+    main.pauseDispatcher()
+    val job = launch {
+      flowOf(1, 2).bindUntil(owner, ON_STOP).collect { values.add(it) }
+    }
+    yield()
+    assertEquals(0, manager.nodeCount())
+    assertTrue(values.isEmpty())
+
+    main.resumeDispatcher()
+    job.join()
+
+    assertEquals(listOf(1, 2), values)
+    assertEquals(0, manager.nodeCount())
+  }
+}
@@ -0,0 +1,121 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * refCount 的保留时间跑在 computation 上，这里替换为 TestScheduler
+ */
+public class SharedStreamTest {
+  private static final long GRACE = 1000;
+
+  private final TestScheduler scheduler = new TestScheduler();
+  private final SharedStreamHolder holder = new SharedStreamHolder();
+  private final AtomicInteger subscriptions = new AtomicInteger();
+  private final PublishSubject<Integer> source = PublishSubject.create();
+  private Observable<Integer> upstream;
+
+  @Before public void setUp() {
+    RxJavaPlugins.setComputationSchedulerHandler(new Function<Scheduler, Scheduler>() {
+      @Override public Scheduler apply(Scheduler ignored) {
+        return scheduler;
+      }
+    });
+    upstream = source.doOnSubscribe(new Consumer<Object>() {
+      @Override public void accept(Object ignored) {
+        subscriptions.incrementAndGet();
+      }
+    });
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  private Observable<Integer> shared() {
+    return upstream.compose(new SharedStreamTransformer<Integer>(holder, "feed", GRACE));
+  }
+
+  @Test public void resubscribeWithinGraceReusesUpstream() {
+    TestObserver<Integer> first = shared().test();
+    source.onNext(1);
+    first.dispose();
+
+    scheduler.advanceTimeBy(GRACE - 1, TimeUnit.MILLISECONDS);
+    TestObserver<Integer> second = shared().test();
+    source.onNext(2);
+
+    // 接上原来的上游，并收到最近的一个数据
+    second.assertValues(1, 2);
+    assertEquals(1, subscriptions.get());
+    assertTrue(source.hasObservers());
+    assertEquals(1, holder.size());
+  }
+
+  @Test public void reconnectsAfterGrace() {
+    TestObserver<Integer> first = shared().test();
+    source.onNext(1);
+    first.dispose();
+
+    scheduler.advanceTimeBy(GRACE, TimeUnit.MILLISECONDS);
+    assertFalse(source.hasObservers());
+    assertEquals(0, holder.size());
+
+    TestObserver<Integer> second = shared().test();
+    source.onNext(2);
+
+    second.assertValue(2);
+    assertEquals(2, subscriptions.get());
+  }
+
+  @Test public void onClearedEndsSharedStream() {
+    TestObserver<Integer> observer = shared().test();
+    PublishProcessor<Integer> processor = PublishProcessor.create();
+    TestSubscriber<Integer> subscriber = processor
+        .compose(new SharedStreamTransformer<Integer>(holder, "feed", GRACE))
+        .test();
+    assertEquals(2, holder.size());
+
+    holder.onCleared();
+
+    observer.assertComplete();
+    subscriber.assertComplete();
+    assertFalse(source.hasObservers());
+    assertFalse(processor.hasSubscribers());
+    assertEquals(0, holder.size());
+  }
+
+  @Test public void flowableResubscribeWithinGraceReusesUpstream() {
+    PublishProcessor<Integer> processor = PublishProcessor.create();
+    Flowable<Integer> shared =
+        processor.compose(new SharedStreamTransformer<Integer>(holder, "feed", GRACE));
+    TestSubscriber<Integer> first = shared.test();
+    processor.onNext(1);
+    first.dispose();
+
+    scheduler.advanceTimeBy(GRACE - 1, TimeUnit.MILLISECONDS);
+    shared.test().assertValue(1);
+    assertTrue(processor.hasSubscribers());
+
+    scheduler.advanceTimeBy(GRACE, TimeUnit.MILLISECONDS);
+    assertTrue(processor.hasSubscribers());
+  }
+}
@@ -0,0 +1,73 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Predicate;
+import io.reactivex.subjects.PublishSubject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 一次 send 的耗时与其他存活 tag 的个数无关，legacySubjectScan 为之前全局 PublishSubject
+ * 逐个 filter 的做法
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagRegistryBenchmark {
+  @Param({ "100", "10000" }) int liveTags;
+
+  private TagRegistry registry;
+  private Disposable[] live;
+  private PublishSubject<String> legacy;
+
+  @Setup public void setUp() {
+    registry = new TagRegistry();
+    live = new Disposable[liveTags];
+    for (int i = 0; i < liveTags; i++) {
+      live[i] = registry.observe("live-" + i).subscribe();
+    }
+    legacy = PublishSubject.create();
+    for (int i = 0; i < liveTags; i++) {
+      final String tag = "live-" + i;
+      legacy.filter(new Predicate<String>() {
+        @Override public boolean test(String s) {
+          return tag.equals(s);
+        }
+      }).subscribe();
+    }
+  }
+
+  @TearDown public void tearDown() {
+    for (Disposable d : live) {
+      d.dispose();
+    }
+    legacy.onComplete();
+  }
+
+  @Benchmark public void bindAndSend() {
+    registry.observe("target").subscribe();
+    registry.send("target");
+  }
+
+  @Benchmark public void sendMiss() {
+    registry.send("missing");
+  }
+
+  @Benchmark public void legacySubjectScan() {
+    legacy.onNext("missing");
+  }
+}
@@ -0,0 +1,158 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.observers.DisposableObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 多个线程同时订阅、dispose 和 send，每个订阅者最多收到一次，结束后信号和前缀树全部回收
+ */
+public class TagRegistryStressTest {
+  private static final int SUBSCRIBERS = 6;
+  private static final int SENDERS = 2;
+  private static final int ROUNDS = 20000;
+  private static final String[] TAGS = { "a", "b", "feed/1", "feed/2/x" };
+  private static final String[] SENDS = { "a", "b", "feed/1", "feed/" };
+
+  private final TagRegistry registry = new TagRegistry();
+  private final AtomicInteger duplicates = new AtomicInteger();
+
+  @Test public void concurrentSubscribeSendDispose() throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(SUBSCRIBERS + SENDERS);
+    final AtomicBoolean subscribing = new AtomicBoolean(true);
+    ExecutorService pool = Executors.newFixedThreadPool(SUBSCRIBERS + SENDERS);
+    try {
+      List<Future<List<CountingObserver>>> kept = new ArrayList<>();
+      for (int t = 0; t < SUBSCRIBERS; t++) {
+        kept.add(pool.submit(new Callable<List<CountingObserver>>() {
+          @Override public List<CountingObserver> call() throws Exception {
+            barrier.await();
+            return subscribe();
+          }
+        }));
+      }
+      List<Future<?>> senders = new ArrayList<>();
+      for (int t = 0; t < SENDERS; t++) {
+        senders.add(pool.submit(new Callable<Void>() {
+          @Override public Void call() throws Exception {
+            barrier.await();
+            for (int i = 0; subscribing.get(); i++) {
+              registry.send(SENDS[i % SENDS.length]);
+            }
+            return null;
+          }
+        }));
+      }
+      List<CountingObserver> alive = new ArrayList<>();
+      for (Future<List<CountingObserver>> future : kept) {
+        alive.addAll(future.get(60, TimeUnit.SECONDS));
+      }
+      subscribing.set(false);
+      for (Future<?> sender : senders) {
+        sender.get(60, TimeUnit.SECONDS);
+      }
+      for (CountingObserver observer : alive) {
+        observer.dispose();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertEquals(0, duplicates.get());
+    assertEquals(0, registry.size());
+
+    // 并发之后索引仍然可用: 每个 tag 的新订阅者都能收到一次
+    List<CountingObserver> fresh = new ArrayList<>();
+    for (String tag : TAGS) {
+      fresh.add(registry.observe(tag).subscribeWith(new CountingObserver()));
+    }
+    for (String send : SENDS) {
+      registry.send(send);
+    }
+    for (CountingObserver observer : fresh) {
+      assertEquals(1, observer.count.get());
+    }
+    assertEquals(0, registry.size());
+  }
+
+  private List<CountingObserver> subscribe() {
+    List<CountingObserver> alive = new ArrayList<>();
+    for (int i = 0; i < ROUNDS; i++) {
+      CountingObserver observer =
+          registry.observe(TAGS[i % TAGS.length]).subscribeWith(new CountingObserver());
+      if (i % 3 == 0) {
+        observer.dispose();
+      } else {
+        alive.add(observer);
+      }
+    }
+    return alive;
+  }
+
+  private final class CountingObserver extends DisposableObserver<String> {
+    final AtomicInteger count = new AtomicInteger();
+
+    @Override public void onNext(String tag) {
+      if (count.incrementAndGet() > 1) {
+        duplicates.incrementAndGet();
+      }
+    }
+
+    @Override public void onError(Throwable e) {
+      throw new AssertionError(e);
+    }
+
+    @Override public void onComplete() {
+    }
+  }
+
+  /**
+   * 多个线程同时 send 同一个 tag，每个订阅者只收到一次
+   */
+  @Test public void concurrentSendsDeliverOnce() throws Exception {
+    final int subscribers = 10000;
+    ExecutorService pool = Executors.newFixedThreadPool(SENDERS * 4);
+    try {
+      for (int round = 0; round < 20; round++) {
+        List<CountingObserver> observers = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+          String tag = i % 2 == 0 ? "once" : "group/once";
+          observers.add(registry.observe(tag).subscribeWith(new CountingObserver()));
+        }
+        final CyclicBarrier barrier = new CyclicBarrier(SENDERS * 4);
+        List<Future<?>> senders = new ArrayList<>();
+        for (int t = 0; t < SENDERS * 4; t++) {
+          final String send = t % 2 == 0 ? "once" : "group/";
+          senders.add(pool.submit(new Callable<Void>() {
+            @Override public Void call() throws Exception {
+              barrier.await();
+              registry.send(send);
+              return null;
+            }
+          }));
+        }
+        for (Future<?> sender : senders) {
+          sender.get(60, TimeUnit.SECONDS);
+        }
+        for (CountingObserver observer : observers) {
+          assertEquals(1, observer.count.get());
+        }
+        assertEquals(0, registry.size());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(0, duplicates.get());
+  }
+}
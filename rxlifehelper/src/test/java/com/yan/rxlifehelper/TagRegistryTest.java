@@ -0,0 +1,135 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagRegistryTest {
+  private final TagRegistry registry = new TagRegistry();
+
+  @Test public void sendOnlyReachesSubscribersOfThatTag() {
+    TestObserver<String> a = registry.observe("a").test();
+    TestObserver<String> b = registry.observe("b").test();
+
+    registry.send("a");
+
+    a.assertValue("a");
+    b.assertNoValues();
+    assertFalse(b.isDisposed());
+  }
+
+  @Test public void sendWithoutSubscribersIsNoOp() {
+    registry.send("nobody");
+    assertEquals(0, registry.size());
+  }
+
+  @Test public void signalRemovedWhenLastSubscriberLeaves() {
+    TestObserver<String> first = registry.observe("tag").test();
+    TestObserver<String> second = registry.observe("tag").test();
+    assertEquals(1, registry.size());
+
+    first.dispose();
+    assertEquals(1, registry.size());
+    second.dispose();
+    assertEquals(0, registry.size());
+  }
+
+  @Test public void signalRemovedAfterSend() {
+    registry.observe("tag").test();
+    registry.observe("tag").test();
+
+    registry.send("tag");
+
+    assertEquals(0, registry.size());
+  }
+
+  @Test public void subscribeAfterSendWaitsForNextSend() {
+    registry.send("tag");
+    TestObserver<String> late = registry.observe("tag").test();
+    late.assertNoValues();
+
+    registry.send("tag");
+    late.assertValue("tag");
+  }
+
+  @Test public void bindFilterTagDisposesPreviousStream() {
+    PublishSubject<Integer> first = PublishSubject.create();
+    PublishSubject<Integer> second = PublishSubject.create();
+    TestObserver<Integer> firstObserver =
+        first.compose(RxLifeHelper.<Integer>bindFilterTag("TagRegistryTest")).test();
+
+    TestObserver<Integer> secondObserver =
+        second.compose(RxLifeHelper.<Integer>bindFilterTag("TagRegistryTest")).test();
+
+    assertFalse(first.hasObservers());
+    firstObserver.assertComplete();
+    assertTrue(second.hasObservers());
+    secondObserver.assertNotTerminated();
+    secondObserver.dispose();
+  }
+
+  @Test public void groupCancelsSubtreeOnly() {
+    TestObserver<String> group = registry.observe("feed/images").test();
+    TestObserver<String> child = registry.observe("feed/images/123").test();
+    TestObserver<String> sibling = registry.observe("feed/text").test();
+
+    registry.send("feed/images/");
+
+    group.assertValueCount(1);
+    child.assertValueCount(1);
+    sibling.assertNoValues();
+    assertEquals(1, registry.size());
+  }
+
+  @Test public void singleSegmentGroupCancelsPlainTag() {
+    TestObserver<String> plain = registry.observe("user42").test();
+    TestObserver<String> child = registry.observe("user42/avatar").test();
+    TestObserver<String> trailing = registry.observe("user42/").test();
+    TestObserver<String> similar = registry.observe("user420").test();
+
+    registry.send("user42/");
+
+    plain.assertValue("user42");
+    child.assertValue("user42/avatar");
+    trailing.assertValue("user42/");
+    similar.assertNoValues();
+  }
+
+  @Test public void plainSendDoesNotReachChildren() {
+    TestObserver<String> plain = registry.observe("user42").test();
+    TestObserver<String> child = registry.observe("user42/avatar").test();
+
+    registry.send("user42");
+
+    plain.assertValueCount(1);
+    child.assertNoValues();
+  }
+
+  @Test public void unnamedGroupIsPlainTag() {
+    TestObserver<String> plain = registry.observe("a").test();
+    TestObserver<String> nested = registry.observe("a/b").test();
+    TestObserver<String> root = registry.observe("/").test();
+
+    registry.send("/");
+    registry.send("//");
+
+    plain.assertNoValues();
+    nested.assertNoValues();
+    root.assertValue("/");
+  }
+
+  @Test public void groupSendAfterBranchRemoved() {
+    TestObserver<String> deep = registry.observe("a/b/c").test();
+    deep.dispose();
+    TestObserver<String> shallow = registry.observe("a").test();
+
+    registry.send("a/");
+
+    shallow.assertValueCount(1);
+    assertEquals(0, registry.size());
+  }
+}
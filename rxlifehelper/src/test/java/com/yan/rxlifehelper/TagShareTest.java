@@ -0,0 +1,108 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TagShareTest {
+  private static final int THREADS = 8;
+
+  @Test public void concurrentSubscribersShareOneUpstream() throws Exception {
+    final String tag = "share-concurrent";
+    final AtomicInteger subscriptions = new AtomicInteger();
+    final Observable<Integer> upstream = Observable.<Integer>never()
+        .doOnSubscribe(new Consumer<Disposable>() {
+          @Override public void accept(Disposable disposable) {
+            subscriptions.incrementAndGet();
+          }
+        });
+    // 每一轮都有一个订阅者一直持有，其他线程同时加入
+    for (int round = 0; round < 50; round++) {
+      Disposable holder = upstream.compose(RxLifeHelper.<Integer>shareByTag(tag)).subscribe();
+      final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+      final CountDownLatch done = new CountDownLatch(THREADS);
+      final List<Disposable> disposables = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        new Thread(new Runnable() {
+          @Override public void run() {
+            try {
+              barrier.await();
+              Disposable d =
+                  upstream.compose(RxLifeHelper.<Integer>shareByTag(tag)).subscribe();
+              synchronized (disposables) {
+                disposables.add(d);
+              }
+            } catch (Exception e) {
+              throw new AssertionError(e);
+            } finally {
+              done.countDown();
+            }
+          }
+        }).start();
+      }
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(round + 1, subscriptions.get());
+
+      for (Disposable d : disposables) {
+        d.dispose();
+      }
+      holder.dispose();
+    }
+  }
+
+  @Test public void differentKindsDoNotShare() {
+    String tag = "share-kinds";
+    PublishSubject<Integer> observable = PublishSubject.create();
+    SingleSubject<String> single = SingleSubject.create();
+
+    TestObserver<Integer> observableObserver =
+        observable.compose(RxLifeHelper.<Integer>shareByTag(tag)).test();
+    TestObserver<String> singleObserver =
+        single.compose(RxLifeHelper.<String>shareByTag(tag)).test();
+    assertTrue(observable.hasObservers());
+    assertTrue(single.hasObservers());
+
+    observable.onNext(1);
+    single.onSuccess("a");
+
+    observableObserver.assertValue(1);
+    singleObserver.assertResult("a");
+  }
+
+  @Test public void sameKindJoinsAndReplaysLatest() {
+    String tag = "share-join";
+    PublishSubject<Integer> first = PublishSubject.create();
+    PublishSubject<Integer> second = PublishSubject.create();
+
+    TestObserver<Integer> a = first.compose(RxLifeHelper.<Integer>shareByTag(tag)).test();
+    first.onNext(1);
+    TestObserver<Integer> b = second.compose(RxLifeHelper.<Integer>shareByTag(tag)).test();
+
+    assertFalse(second.hasObservers());
+    b.assertValue(1);
+    first.onNext(2);
+    a.assertValues(1, 2);
+    b.assertValues(1, 2);
+
+    RxLifeHelper.sendFilterTag(tag);
+    assertFalse(first.hasObservers());
+    a.assertComplete();
+    b.assertComplete();
+    Single.just(0).compose(RxLifeHelper.<Integer>shareByTag(tag)).test().assertResult(0);
+  }
+}
@@ -0,0 +1,37 @@
+package com.yan.rxlifehelper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+/**
+ * 由 LifecycleRegistry 驱动的 owner，只在一个线程内使用
+ */
+public final class TestLifecycleOwner implements LifecycleOwner {
+  private final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+  public static TestLifecycleOwner resumed() {
+    TestLifecycleOwner owner = new TestLifecycleOwner();
+    owner.moveTo(Lifecycle.State.RESUMED);
+    return owner;
+  }
+
+  public TestLifecycleOwner handle(Lifecycle.Event event) {
+    registry.handleLifecycleEvent(event);
+    return this;
+  }
+
+  public TestLifecycleOwner moveTo(Lifecycle.State state) {
+    registry.markState(state);
+    return this;
+  }
+
+  public TestLifecycleOwner destroy() {
+    return moveTo(Lifecycle.State.DESTROYED);
+  }
+
+  @NonNull @Override public Lifecycle getLifecycle() {
+    return registry;
+  }
+}
@@ -0,0 +1,41 @@
+package com.yan.rxlifehelper;
+
+import android.view.View;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JVM 上 View 的 tag 和 attach 监听都是空实现，这里自己保存
+ */
+final class TestView extends View {
+  private final Map<Integer, Object> tags = new HashMap<>();
+  private final List<OnAttachStateChangeListener> listeners = new ArrayList<>();
+
+  TestView() {
+    super(null);
+  }
+
+  @Override public Object getTag(int key) {
+    return tags.get(key);
+  }
+
+  @Override public void setTag(int key, Object tag) {
+    tags.put(key, tag);
+  }
+
+  @Override public void addOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override public void removeOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  void detach() {
+    for (OnAttachStateChangeListener listener : new ArrayList<>(listeners)) {
+      listener.onViewDetachedFromWindow(this);
+    }
+  }
+}
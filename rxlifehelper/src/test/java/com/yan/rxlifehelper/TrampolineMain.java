@@ -0,0 +1,50 @@
+package com.yan.rxlifehelper;
+
+import androidx.arch.core.executor.ArchTaskExecutor;
+import androidx.arch.core.executor.TaskExecutor;
+import io.reactivex.Scheduler;
+import io.reactivex.android.plugins.RxAndroidPlugins;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.Callable;
+
+/**
+ * 基准测试用: 主线程任务在提交的线程上直接执行，LiveData 的主线程检查总是通过
+ */
+final class TrampolineMain {
+  private TrampolineMain() {
+    throw new AssertionError("No instances.");
+  }
+
+  static void install() {
+    RxAndroidPlugins.setInitMainThreadSchedulerHandler(
+        new Function<Callable<Scheduler>, Scheduler>() {
+          @Override public Scheduler apply(Callable<Scheduler> ignored) {
+            return Schedulers.trampoline();
+          }
+        });
+    RxAndroidPlugins.setMainThreadSchedulerHandler(new Function<Scheduler, Scheduler>() {
+      @Override public Scheduler apply(Scheduler ignored) {
+        return Schedulers.trampoline();
+      }
+    });
+    ArchTaskExecutor.getInstance().setDelegate(new TaskExecutor() {
+      @Override public void executeOnDiskIO(Runnable runnable) {
+        runnable.run();
+      }
+
+      @Override public void postToMainThread(Runnable runnable) {
+        runnable.run();
+      }
+
+      @Override public boolean isMainThread() {
+        return true;
+      }
+    });
+  }
+
+  static void reset() {
+    ArchTaskExecutor.getInstance().setDelegate(null);
+    RxAndroidPlugins.reset();
+  }
+}
@@ -0,0 +1,122 @@
+package com.yan.rxlifehelper;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ViewBindStateTest {
+  private final PublishSubject<Integer> source = PublishSubject.create();
+
+  /**
+   * 池是静态的，清空后 detach 的状态一定是下一个 obtain 拿到的那个
+   */
+  @Before public void setUp() {
+    ViewBindState.clearPool();
+  }
+
+  private TestObserver<Integer> bind(TestView view, Object bindKey) {
+    return source.compose(RxLifeHelper.<Integer>bindUntilViewRecycle(view, bindKey)).test();
+  }
+
+  @Test public void recycleEndsSessionAndNextBindStartsNewOne() {
+    TestView view = new TestView();
+    TestObserver<Integer> first = bind(view, "a");
+
+    RxLifeHelper.recycleView(view);
+    first.assertComplete();
+
+    TestObserver<Integer> second = bind(view, "b");
+    source.onNext(1);
+    second.assertValue(1).assertNotTerminated();
+    second.dispose();
+  }
+
+  @Test public void sameKeySharesTransformerDifferentKeyEndsSession() {
+    TestView view = new TestView();
+    assertSame(RxLifeHelper.bindUntilViewRecycle(view, "a"),
+        RxLifeHelper.bindUntilViewRecycle(view, "a"));
+    TestObserver<Integer> first = bind(view, "a");
+
+    TestObserver<Integer> second = bind(view, "b");
+
+    first.assertComplete();
+    second.assertNotTerminated();
+    second.dispose();
+  }
+
+  /**
+   * detach 后状态回到池里给其他 view 复用，上一个周期的 transformer 晚到的订阅直接结束，
+   * 不会挂到新 view 的周期上
+   */
+  @Test public void staleTransformerDoesNotJoinReusedState() {
+    TestView oldView = new TestView();
+    Observable<Integer> late =
+        source.compose(RxLifeHelper.<Integer>bindUntilViewRecycle(oldView, "old"));
+    Object state = oldView.getTag(R.id.tag_view_bind);
+    oldView.detach();
+    assertNull(oldView.getTag(R.id.tag_view_bind));
+
+    TestView newView = new TestView();
+    TestObserver<Integer> current = bind(newView, "new");
+    assertSame(state, newView.getTag(R.id.tag_view_bind));
+
+    TestObserver<Integer> stale = late.test();
+    stale.assertComplete();
+
+    RxLifeHelper.recycleView(newView);
+    current.assertComplete();
+  }
+
+  @Test public void detachEndsAttachBinding() {
+    TestView view = new TestView();
+    TestObserver<Integer> observer =
+        source.compose(RxLifeHelper.<Integer>bindUntilViewDetach(view)).test();
+
+    view.detach();
+
+    observer.assertComplete();
+    assertFalse(source.hasObservers());
+  }
+
+  /**
+   * 10k 次绑定一个流、回收，状态对象不变，每次只分配本周期的 transformer 和这次订阅
+   */
+  @Test public void bindRecycleAllocation() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    TestView view = new TestView();
+    RxLifeHelper.bindUntilViewRecycle(view, null);
+    Object state = view.getTag(R.id.tag_view_bind);
+    bindRecycle(view, 10000);
+    long thread = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    bindRecycle(view, 10000);
+    long perCycle = (threads.getThreadAllocatedBytes(thread) - before) / 10000;
+
+    assertSame(state, view.getTag(R.id.tag_view_bind));
+    assertFalse(source.hasObservers());
+    // transformer、SessionSignal 和订阅链，约 300 字节，不随周期数增长
+    assertTrue("bytes per cycle " + perCycle, perCycle <= 384);
+  }
+
+  private void bindRecycle(TestView view, int cycles) {
+    for (int i = 0; i < cycles; i++) {
+      source.compose(RxLifeHelper.<Integer>bindUntilViewRecycle(view, null)).subscribe();
+      RxLifeHelper.recycleView(view);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.yan.rxlifehelper;
+
+import androidx.lifecycle.Lifecycle;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.CompletableSubject;
+import io.reactivex.subjects.MaybeSubject;
+import io.reactivex.subjects.SingleSubject;
+import java.util.concurrent.CancellationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Single、Maybe、Completable 在低于 state 时订阅，等到达到 state 才订阅上游
+ */
+public class WhileAtLeastTest {
+  private TestLifecycleOwner owner;
+  private RxLifeHelper.InnerLifeCycleManager manager;
+
+  @Before public void setUp() {
+    owner = new TestLifecycleOwner().moveTo(Lifecycle.State.CREATED);
+    manager = RxLifeHelper.getLifeManager(owner);
+  }
+
+  private <T> LifecycleTransformer<T> whileStarted() {
+    return RxLifeHelper.bindWhileAtLeast(owner, Lifecycle.State.STARTED);
+  }
+
+  @Test public void singleWaitsForState() {
+    SingleSubject<Integer> source = SingleSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>whileStarted()).test();
+    assertFalse(source.hasObservers());
+    observer.assertEmpty();
+
+    owner.handle(Lifecycle.Event.ON_START);
+    assertTrue(source.hasObservers());
+
+    owner.handle(Lifecycle.Event.ON_STOP);
+    observer.assertError(CancellationException.class);
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void singleDeliversAfterState() {
+    SingleSubject<Integer> source = SingleSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>whileStarted()).test();
+
+    owner.handle(Lifecycle.Event.ON_START);
+    source.onSuccess(1);
+
+    observer.assertResult(1);
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void subscribesImmediatelyWhenAtLeast() {
+    owner.moveTo(Lifecycle.State.RESUMED);
+    MaybeSubject<Integer> source = MaybeSubject.create();
+    TestObserver<Integer> observer = source.compose(this.<Integer>whileStarted()).test();
+    assertTrue(source.hasObservers());
+
+    owner.handle(Lifecycle.Event.ON_PAUSE);
+    assertTrue(source.hasObservers());
+    owner.handle(Lifecycle.Event.ON_STOP);
+
+    observer.assertResult();
+    assertFalse(source.hasObservers());
+  }
+
+  @Test public void destroyBeforeStateEndsWithoutSubscribing() {
+    MaybeSubject<Integer> maybe = MaybeSubject.create();
+    SingleSubject<Integer> single = SingleSubject.create();
+    TestObserver<Integer> maybeObserver = maybe.compose(this.<Integer>whileStarted()).test();
+    TestObserver<Integer> singleObserver = single.compose(this.<Integer>whileStarted()).test();
+
+    owner.destroy();
+
+    maybeObserver.assertResult();
+    singleObserver.assertError(CancellationException.class);
+    assertFalse(maybe.hasObservers());
+    assertFalse(single.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void disposeWhileWaitingUnlinks() {
+    CompletableSubject source = CompletableSubject.create();
+    TestObserver<Void> observer = source.compose(this.<Void>whileStarted()).test();
+    assertEquals(1, manager.nodeCount());
+
+    observer.dispose();
+    owner.handle(Lifecycle.Event.ON_START);
+
+    assertFalse(source.hasObservers());
+    assertEquals(0, manager.nodeCount());
+  }
+
+  @Test public void equalTransformersHaveEqualHashCodes() {
+    Function<Integer, ObservableSource<Integer>> resume =
+        new Function<Integer, ObservableSource<Integer>>() {
+          @Override public ObservableSource<Integer> apply(Integer last) {
+            return Observable.just(last);
+          }
+        };
+    LifecycleTransformer<Integer> plain = whileStarted();
+    LifecycleTransformer<Integer> resumed =
+        RxLifeHelper.bindWhileAtLeast(owner, Lifecycle.State.STARTED, resume);
+
+    assertEquals(plain, this.<Integer>whileStarted());
+    assertEquals(plain.hashCode(), this.<Integer>whileStarted().hashCode());
+    assertEquals(resumed,
+        RxLifeHelper.<Integer>bindWhileAtLeast(owner, Lifecycle.State.STARTED, resume));
+    assertEquals(resumed.hashCode(),
+        RxLifeHelper.<Integer>bindWhileAtLeast(owner, Lifecycle.State.STARTED, resume).hashCode());
+    assertNotEquals(plain, resumed);
+    assertNotEquals(plain.hashCode(), resumed.hashCode());
+  }
+}
@@ -0,0 +1,119 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameBatchTest {
+  private static final long FRAME_MILLIS = 16;
+
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  @Test public void itemsOfOneFrameArriveAsOneList() {
+    final TestFrameClock clock = new TestFrameClock();
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<List<Integer>> observer =
+        new FrameBatchObservable<>(source, clock).test();
+
+    for (int i = 0; i < 100; i++) {
+      source.onNext(i);
+    }
+    observer.assertNoValues();
+    // 一帧之内只提交一次回调
+    main.run(new Runnable() {
+      @Override public void run() {
+        assertEquals(1, clock.frame());
+      }
+    });
+    assertEquals(1, observer.valueCount());
+    assertEquals(100, observer.values().get(0).size());
+
+    source.onNext(100);
+    source.onComplete();
+    main.run(new Runnable() {
+      @Override public void run() {
+        clock.frame();
+      }
+    });
+    observer.assertValueCount(2).assertComplete();
+    assertEquals(0, main.postCount());
+  }
+
+  /**
+   * 后台线程以 1k/s 的速度发送 1 秒，主线程消息数与帧数相当，而不是与数据个数相当
+   */
+  @Test public void oneMainMessagePerFrameAtOneThousandItemsPerSecond() throws Exception {
+    final TestFrameClock clock = new TestFrameClock();
+    final Runnable frame = new Runnable() {
+      @Override public void run() {
+        clock.frame();
+      }
+    };
+    ScheduledExecutorService vsync = Executors.newSingleThreadScheduledExecutor();
+    final AtomicInteger frames = new AtomicInteger();
+    vsync.scheduleAtFixedRate(new Runnable() {
+      @Override public void run() {
+        if (clock.hasCallbacks()) {
+          frames.incrementAndGet();
+          AndroidSchedulers.mainThread().scheduleDirect(frame);
+        }
+      }
+    }, FRAME_MILLIS, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+
+    final AtomicInteger received = new AtomicInteger();
+    final AtomicLong maxLatency = new AtomicLong();
+    final AtomicLong totalLatency = new AtomicLong();
+    TestObserver<List<Long>> observer = new FrameBatchObservable<>(
+        Observable.interval(1, TimeUnit.MILLISECONDS).take(1000).map(
+            new Function<Long, Long>() {
+              @Override public Long apply(Long ignored) {
+                return System.nanoTime();
+              }
+            }), clock)
+        .doOnNext(new Consumer<List<Long>>() {
+          @Override public void accept(List<Long> batch) {
+            long now = System.nanoTime();
+            for (Long emitted : batch) {
+              long latency = now - emitted;
+              totalLatency.addAndGet(latency);
+              if (latency > maxLatency.get()) {
+                maxLatency.set(latency);
+              }
+            }
+            received.addAndGet(batch.size());
+          }
+        })
+        .test();
+
+    observer.awaitTerminalEvent(10, TimeUnit.SECONDS);
+    vsync.shutdownNow();
+
+    observer.assertComplete();
+    assertEquals(1000, received.get());
+    assertEquals(frames.get(), main.postCount());
+    // 1000 个数据约 63 帧，留出调度误差
+    assertTrue("posts " + main.postCount(), main.postCount() < 150);
+    assertTrue("batches " + observer.valueCount(), observer.valueCount() <= frames.get());
+    // 最多等一帧，留出调度误差
+    assertTrue("max latency " + maxLatency.get(),
+        maxLatency.get() < TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS * 10));
+    // 平均约等半帧
+    long avgLatency = totalLatency.get() / 1000;
+    assertTrue("avg latency " + avgLatency,
+        avgLatency < TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS * 2));
+  }
+}
@@ -0,0 +1,178 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.RxLifeHelper;
+import com.yan.rxlifehelper.TestLifecycleOwner;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.CompletableSubject;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.concurrent.Callable;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LiveObserverTest {
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  private static final Lifecycle.Event END = Lifecycle.Event.ON_DESTROY;
+
+  /**
+   * 主线程上订阅已经活跃的 owner 会同步回调 onActive，不能在子类字段初始化之前注册
+   */
+  @Test public void subscribeOnMainToResumedOwner() {
+    main.run(new Runnable() {
+      @Override public void run() {
+        TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+
+        Observable.just(1, 2)
+            .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END))
+            .test()
+            .assertResult(1, 2);
+        Flowable.just(1, 2)
+            .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END))
+            .test()
+            .assertResult(1, 2);
+        Single.just(1).compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END)).test()
+            .assertResult(1);
+        Maybe.just(1).compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END)).test()
+            .assertResult(1);
+        Completable.complete().compose(RxLifeHelper.bindLifeLiveOwnerUntilEvent(owner, END)).test()
+            .assertResult();
+      }
+    });
+  }
+
+  @Test public void subscribeOffMainDeliversOnMain() {
+    final TestLifecycleOwner owner = main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed();
+      }
+    });
+    final boolean[] onMain = { true };
+    TestObserver<Integer> observer = Observable.just(1, 2, 3)
+        .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END,
+            LiveBufferPolicy.unbounded()))
+        .doOnNext(new Consumer<Integer>() {
+          @Override public void accept(Integer integer) {
+            onMain[0] &= main.isMain();
+          }
+        })
+        .test();
+
+    main.idle();
+
+    observer.assertResult(1, 2, 3);
+    assertTrue(onMain[0]);
+  }
+
+  @Test public void latestKeepsOnlyNewestWhileStopped() {
+    assertBufferedWhileStopped(LiveBufferPolicy.latest(), 5);
+  }
+
+  @Test public void ringDropsOldest() {
+    LiveBufferPolicy policy = LiveBufferPolicy.ring(2, LiveBufferPolicy.Overflow.DROP_OLDEST);
+    assertBufferedWhileStopped(policy, 4, 5);
+    assertEquals(3, policy.droppedCount());
+  }
+
+  @Test public void ringDropsNewest() {
+    LiveBufferPolicy policy = LiveBufferPolicy.ring(2, LiveBufferPolicy.Overflow.DROP_NEWEST);
+    assertBufferedWhileStopped(policy, 1, 2);
+    assertEquals(3, policy.droppedCount());
+  }
+
+  @Test public void unboundedKeepsEverything() {
+    assertBufferedWhileStopped(LiveBufferPolicy.unbounded(), 1, 2, 3, 4, 5);
+  }
+
+  private void assertBufferedWhileStopped(final LiveBufferPolicy policy,
+      final Integer... expected) {
+    main.run(new Runnable() {
+      @Override public void run() {
+        TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestObserver<Integer> observer =
+            source.compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END, policy))
+                .test();
+        owner.moveTo(Lifecycle.State.CREATED);
+
+        for (int i = 1; i <= 5; i++) {
+          source.onNext(i);
+        }
+        source.onComplete();
+        // 结束事件排在缓存的数据之后
+        observer.assertEmpty();
+
+        owner.moveTo(Lifecycle.State.RESUMED);
+        observer.assertResult(expected);
+      }
+    });
+  }
+
+  @Test public void destroyWhileStoppedEndsStream() {
+    main.run(new Runnable() {
+      @Override public void run() {
+        TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = source.toFlowable(BackpressureStrategy.BUFFER)
+            .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END))
+            .test();
+        owner.moveTo(Lifecycle.State.CREATED);
+        source.onNext(1);
+
+        owner.destroy();
+
+        assertFalse(source.hasObservers());
+        subscriber.assertNoValues();
+      }
+    });
+  }
+
+  /**
+   * 上游在子线程结束，owner 重新活跃后才在主线程 onComplete
+   */
+  @Test public void completableDeliversOnMainAfterActive() throws Exception {
+    final TestLifecycleOwner owner = main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed().moveTo(Lifecycle.State.CREATED);
+      }
+    });
+    final boolean[] onMain = { false };
+    final CompletableSubject source = CompletableSubject.create();
+    TestObserver<Void> observer = source
+        .compose(RxLifeHelper.bindLifeLiveOwnerUntilEvent(owner, END))
+        .doOnComplete(new Action() {
+          @Override public void run() {
+            onMain[0] = main.isMain();
+          }
+        })
+        .test();
+    main.idle();
+
+    source.onComplete();
+    main.idle();
+    observer.assertEmpty();
+
+    main.run(new Runnable() {
+      @Override public void run() {
+        owner.moveTo(Lifecycle.State.RESUMED);
+      }
+    });
+    main.idle();
+
+    observer.assertResult();
+    assertTrue(onMain[0]);
+  }
+}
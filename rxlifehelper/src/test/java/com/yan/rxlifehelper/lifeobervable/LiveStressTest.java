@@ -0,0 +1,187 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.RxLifeHelper;
+import com.yan.rxlifehelper.TestLifecycleOwner;
+import io.reactivex.Observable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多个线程同时向 MainDispatcher 和 live 缓冲区写入
+ */
+public class LiveStressTest {
+  private static final int THREADS = 8;
+  private static final int ITEMS = 10000;
+
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  @Test public void dispatcherKeepsPerThreadOrder() throws Exception {
+    final int[] last = new int[THREADS];
+    final AtomicInteger ran = new AtomicInteger();
+    final AtomicBoolean offMain = new AtomicBoolean();
+    runConcurrently(new Producer() {
+      @Override public void produce(final int thread) {
+        for (int i = 0; i < ITEMS; i++) {
+          final int seq = i + 1;
+          MainDispatcher.dispatch(new Runnable() {
+            @Override public void run() {
+              if (!main.isMain() || last[thread] != seq - 1) {
+                offMain.set(true);
+              }
+              last[thread] = seq;
+              ran.incrementAndGet();
+            }
+          });
+        }
+      }
+    });
+    main.idle();
+
+    assertEquals(THREADS * ITEMS, ran.get());
+    assertTrue("out of order or off main", !offMain.get());
+  }
+
+  @Test public void ringDropOldestCountsEveryItem() throws Exception {
+    assertBoundedBufferAccounts(LiveBufferPolicy.ring(64, LiveBufferPolicy.Overflow.DROP_OLDEST));
+  }
+
+  @Test public void ringDropNewestCountsEveryItem() throws Exception {
+    assertBoundedBufferAccounts(LiveBufferPolicy.ring(64, LiveBufferPolicy.Overflow.DROP_NEWEST));
+  }
+
+  /**
+   * 多个生产者写入，一个消费者同时读取: 读到的、留下的、丢弃的加起来等于写入的
+   */
+  private void assertBoundedBufferAccounts(LiveBufferPolicy policy) throws Exception {
+    final LiveBufferPolicy.LiveBuffer<Integer> buffer = policy.newBuffer();
+    final AtomicInteger rejected = new AtomicInteger();
+    final AtomicBoolean producing = new AtomicBoolean(true);
+    final AtomicInteger polled = new AtomicInteger();
+    Thread consumer = new Thread(new Runnable() {
+      @Override public void run() {
+        while (producing.get() || !buffer.isEmpty()) {
+          if (buffer.poll() != null) {
+            polled.incrementAndGet();
+          }
+        }
+      }
+    });
+    consumer.start();
+    runConcurrently(new Producer() {
+      @Override public void produce(int thread) {
+        for (int i = 0; i < ITEMS; i++) {
+          if (!buffer.offer(i)) {
+            rejected.incrementAndGet();
+          }
+        }
+      }
+    });
+    producing.set(false);
+    consumer.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertEquals(rejected.get(), policy.droppedCount());
+    assertEquals(THREADS * ITEMS, polled.get() + policy.droppedCount());
+  }
+
+  /**
+   * 上游在多个线程上发射，owner 同时在停止和恢复之间切换，无界缓冲不丢数据并保持顺序
+   */
+  @Test public void unboundedLiveStreamAcrossThreads() {
+    final TestLifecycleOwner owner = main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed();
+      }
+    });
+    List<Observable<Integer>> sources = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int base = t * ITEMS;
+      sources.add(Observable.range(0, ITEMS).map(new Function<Integer, Integer>() {
+        @Override public Integer apply(Integer i) {
+          return base + i;
+        }
+      }).subscribeOn(Schedulers.computation()));
+    }
+    final int[] last = new int[THREADS];
+    final AtomicBoolean broken = new AtomicBoolean();
+    TestObserver<Integer> observer = Observable.merge(sources)
+        .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner,
+            Lifecycle.Event.ON_DESTROY, LiveBufferPolicy.unbounded()))
+        .doOnNext(new Consumer<Integer>() {
+          @Override public void accept(Integer value) {
+            int thread = value / ITEMS;
+            int seq = value % ITEMS + 1;
+            if (!main.isMain() || last[thread] != seq - 1) {
+              broken.set(true);
+            }
+            last[thread] = seq;
+          }
+        })
+        .test();
+
+    for (int i = 0; i < 20; i++) {
+      main.run(new Runnable() {
+        @Override public void run() {
+          owner.moveTo(Lifecycle.State.CREATED);
+        }
+      });
+      main.run(new Runnable() {
+        @Override public void run() {
+          owner.moveTo(Lifecycle.State.RESUMED);
+        }
+      });
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!observer.isTerminated() && System.currentTimeMillis() < deadline) {
+      main.idle();
+    }
+
+    observer.assertComplete();
+    assertEquals(THREADS * ITEMS, observer.valueCount());
+    assertTrue("out of order or off main", !broken.get());
+  }
+
+  private interface Producer {
+    void produce(int thread);
+  }
+
+  private static void runConcurrently(final Producer producer) throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final int thread = t;
+        results.add(pool.submit(new Callable<Void>() {
+          @Override public Void call() throws Exception {
+            barrier.await();
+            producer.produce(thread);
+            return null;
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.CountingTracer;
+import com.yan.rxlifehelper.RxLifeHelper;
+import com.yan.rxlifehelper.TestLifecycleOwner;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LiveTracerTest {
+  private static final Lifecycle.Event END = Lifecycle.Event.ON_DESTROY;
+
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  private final CountingTracer tracer = new CountingTracer();
+
+  @Before public void setUp() {
+    RxLifeHelper.setTracer(tracer);
+  }
+
+  @After public void tearDown() {
+    RxLifeHelper.setTracer(null);
+  }
+
+  @Test public void dropWhileInactiveIsTraced() {
+    main.run(new Runnable() {
+      @Override public void run() {
+        TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+        PublishSubject<Integer> source = PublishSubject.create();
+        source.compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END)).test();
+        owner.moveTo(Lifecycle.State.CREATED);
+
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+      }
+    });
+
+    assertEquals(2, tracer.droppedItemCount());
+  }
+
+  /**
+   * 活跃期间主线程还没来得及分发，latest 只保留最新的一个，这不算不活跃期间的丢弃
+   */
+  @Test public void overwriteWhileActiveIsNotTraced() {
+    final TestLifecycleOwner owner = main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed();
+      }
+    });
+    PublishSubject<Integer> source = PublishSubject.create();
+    TestObserver<Integer> observer =
+        source.compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END)).test();
+    main.idle();
+
+    CountDownLatch blocked = main.block();
+    source.onNext(1);
+    source.onNext(2);
+    source.onNext(3);
+    blocked.countDown();
+    main.idle();
+
+    observer.assertValue(3);
+    assertEquals(0, tracer.droppedItemCount());
+  }
+
+  @Test public void liveErrorIsTraced() {
+    final IllegalStateException error = new IllegalStateException();
+    main.run(new Runnable() {
+      @Override public void run() {
+        TestLifecycleOwner owner = TestLifecycleOwner.resumed();
+        Single.<Integer>error(error)
+            .compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner, END))
+            .test()
+            .assertError(error);
+      }
+    });
+
+    assertEquals(1, tracer.errorCount());
+  }
+}
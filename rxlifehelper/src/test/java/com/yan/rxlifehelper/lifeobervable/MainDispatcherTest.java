@@ -0,0 +1,123 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.RxLifeHelper;
+import com.yan.rxlifehelper.TestLifecycleOwner;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.PublishSubject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MainDispatcherTest {
+  private static final int STREAMS = 200;
+
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  @Test public void tasksOfOneBatchShareOneMessageInOrder() {
+    final List<Integer> ran = new ArrayList<>();
+    CountDownLatch blocked = main.block();
+    for (int i = 0; i < 1000; i++) {
+      final int index = i;
+      MainDispatcher.dispatch(new Runnable() {
+        @Override public void run() {
+          ran.add(index);
+        }
+      });
+    }
+    assertEquals(1, main.postCount());
+
+    blocked.countDown();
+    main.idle();
+
+    assertEquals(1000, ran.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, (int) ran.get(i));
+    }
+  }
+
+  @Test public void failingTaskDoesNotLoseTheRest() {
+    final List<String> ran = new ArrayList<>();
+    CountDownLatch blocked = main.block();
+    MainDispatcher.dispatch(new Runnable() {
+      @Override public void run() {
+        throw new IllegalStateException("expected");
+      }
+    });
+    MainDispatcher.dispatch(new Runnable() {
+      @Override public void run() {
+        ran.add("after");
+      }
+    });
+
+    blocked.countDown();
+    main.idle();
+
+    assertEquals(1, ran.size());
+    assertEquals(1, main.takeErrors().size());
+  }
+
+  /**
+   * IO 线程池上订阅 200 个 live 流: 之前每个 observe、removeObservers 各占一个主线程消息，
+   * 现在同一批只占一个
+   */
+  @Test public void subscribeAndDisposeOffMainPostOncePerBatch() throws Exception {
+    final TestLifecycleOwner owner = main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed();
+      }
+    });
+    final PublishSubject<Integer> source = PublishSubject.create();
+    ExecutorService io = Executors.newFixedThreadPool(4);
+    try {
+      CountDownLatch blocked = main.block();
+      List<Future<Disposable>> subscribed = new ArrayList<>();
+      for (int i = 0; i < STREAMS; i++) {
+        subscribed.add(io.submit(new Callable<Disposable>() {
+          @Override public Disposable call() {
+            return source.compose(RxLifeHelper.<Integer>bindLifeLiveOwnerUntilEvent(owner,
+                Lifecycle.Event.ON_DESTROY)).subscribe();
+          }
+        }));
+      }
+      final List<Disposable> disposables = new ArrayList<>();
+      for (Future<Disposable> future : subscribed) {
+        disposables.add(future.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, main.postCount());
+      blocked.countDown();
+      main.idle();
+      assertTrue(source.hasObservers());
+
+      blocked = main.block();
+      List<Future<?>> disposed = new ArrayList<>();
+      for (final Disposable disposable : disposables) {
+        disposed.add(io.submit(new Runnable() {
+          @Override public void run() {
+            disposable.dispose();
+          }
+        }));
+      }
+      for (Future<?> future : disposed) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(2, main.postCount());
+      blocked.countDown();
+      main.idle();
+      assertFalse(source.hasObservers());
+    } finally {
+      io.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.arch.core.executor.ArchTaskExecutor;
+import androidx.arch.core.executor.TaskExecutor;
+import io.reactivex.Scheduler;
+import io.reactivex.android.plugins.RxAndroidPlugins;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.rules.ExternalResource;
+
+/**
+ * 用一个单线程 executor 充当主线程: AndroidSchedulers.mainThread()、LiveData 的主线程检查
+ * 和 MainDispatcher 都指向它，并统计投递到主线程的消息数
+ */
+public final class MainThreadRule extends ExternalResource {
+  private final AtomicInteger posts = new AtomicInteger();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+  private ExecutorService executor;
+  private volatile Thread thread;
+
+  @Override protected void before() throws Throwable {
+    executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "test-main");
+        t.setDaemon(true);
+        thread = t;
+        return t;
+      }
+    });
+    executor.submit(new Runnable() {
+      @Override public void run() {
+      }
+    }).get();
+    MainDispatcher.setFallbackMainThread(thread);
+
+    final Scheduler main = Schedulers.from(new Executor() {
+      @Override public void execute(final Runnable command) {
+        post(command);
+      }
+    });
+    RxAndroidPlugins.setInitMainThreadSchedulerHandler(
+        new Function<Callable<Scheduler>, Scheduler>() {
+          @Override public Scheduler apply(Callable<Scheduler> ignored) {
+            return main;
+          }
+        });
+    RxAndroidPlugins.setMainThreadSchedulerHandler(new Function<Scheduler, Scheduler>() {
+      @Override public Scheduler apply(Scheduler ignored) {
+        return main;
+      }
+    });
+    ArchTaskExecutor.getInstance().setDelegate(new TaskExecutor() {
+      @Override public void executeOnDiskIO(Runnable runnable) {
+        Schedulers.io().scheduleDirect(runnable);
+      }
+
+      @Override public void postToMainThread(Runnable runnable) {
+        post(runnable);
+      }
+
+      @Override public boolean isMainThread() {
+        return isMain();
+      }
+    });
+  }
+
+  @Override protected void after() {
+    // MainDispatcher 的状态是静态的，没执行完的消息留到下一个测试会让它一直等这个消息
+    idle();
+    ArchTaskExecutor.getInstance().setDelegate(null);
+    RxAndroidPlugins.reset();
+    MainDispatcher.setFallbackMainThread(null);
+    executor.shutdownNow();
+    if (!errors.isEmpty()) {
+      throw new AssertionError("uncaught on main thread: " + errors);
+    }
+  }
+
+  private void post(final Runnable runnable) {
+    posts.incrementAndGet();
+    pending.incrementAndGet();
+    executor.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          runnable.run();
+        } catch (RuntimeException e) {
+          // 主线程上未捕获的异常，留给测试检查，不能让线程退出
+          errors.add(e);
+        } finally {
+          pending.decrementAndGet();
+        }
+      }
+    });
+  }
+
+  public boolean isMain() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * 投递到主线程的消息数
+   */
+  public int postCount() {
+    return posts.get();
+  }
+
+  /**
+   * 取出主线程消息里抛出的异常，没有取出的异常在测试结束时报错
+   */
+  public List<Throwable> takeErrors() {
+    List<Throwable> taken = new ArrayList<>(errors);
+    errors.removeAll(taken);
+    return taken;
+  }
+
+  /**
+   * 在主线程执行并等待结束，异常原样抛出
+   */
+  public void run(final Runnable runnable) {
+    call(new Callable<Void>() {
+      @Override public Void call() {
+        runnable.run();
+        return null;
+      }
+    });
+  }
+
+  public <T> T call(Callable<T> callable) {
+    try {
+      return executor.submit(callable).get(10, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new AssertionError(cause);
+    } catch (Exception e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * 让主线程停在一个不计数的任务里，countDown 之后继续，期间投递的消息排队等待
+   */
+  public CountDownLatch block() {
+    final CountDownLatch latch = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override public void run() {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    return latch;
+  }
+
+  /**
+   * 等待已经投递的消息，以及执行期间再投递的消息全部执行完
+   */
+  public void idle() {
+    do {
+      run(new Runnable() {
+        @Override public void run() {
+        }
+      });
+    } while (pending.get() > 0);
+  }
+}
@@ -0,0 +1,130 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import androidx.lifecycle.Lifecycle;
+import com.yan.rxlifehelper.RxLifeHelper;
+import com.yan.rxlifehelper.TestLifecycleOwner;
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PausedDemandTest {
+  @Rule public final MainThreadRule main = new MainThreadRule();
+
+  private final AtomicLong produced = new AtomicLong();
+  /**
+   * 按请求生产的计数上游，在后台线程生产
+   */
+  private final Flowable<Long> producer = Flowable.generate(new Consumer<Emitter<Long>>() {
+    @Override public void accept(Emitter<Long> emitter) {
+      emitter.onNext(produced.incrementAndGet());
+    }
+  }).subscribeOn(Schedulers.single());
+
+  private TestLifecycleOwner resumedOwner() {
+    return main.call(new Callable<TestLifecycleOwner>() {
+      @Override public TestLifecycleOwner call() {
+        return TestLifecycleOwner.resumed();
+      }
+    });
+  }
+
+  private void moveTo(final TestLifecycleOwner owner, final Lifecycle.State state) {
+    main.run(new Runnable() {
+      @Override public void run() {
+        owner.moveTo(state);
+      }
+    });
+  }
+
+  /**
+   * 下游一次 request(Long.MAX_VALUE)，暂停后上游最多再生产已经请求的一批
+   */
+  @Test public void producerStopsWhilePaused() throws Exception {
+    LiveBufferPolicy policy = LiveBufferPolicy.unbounded().withPausedDemand();
+    TestLifecycleOwner owner = resumedOwner();
+    TestSubscriber<Long> subscriber = producer
+        .compose(RxLifeHelper.<Long>bindLifeLiveOwnerUntilEvent(owner,
+            Lifecycle.Event.ON_DESTROY, policy))
+        .test();
+    awaitProduced(1000);
+
+    moveTo(owner, Lifecycle.State.CREATED);
+    long atPause = produced.get();
+    Thread.sleep(100);
+    long settled = produced.get();
+    Thread.sleep(200);
+
+    assertEquals(settled, produced.get());
+    assertTrue("produced after pause " + (settled - atPause),
+        settled - atPause <= policy.prefetch());
+
+    moveTo(owner, Lifecycle.State.RESUMED);
+    awaitProduced(settled + 1000);
+    main.idle();
+    subscriber.cancel();
+    assertTrue(subscriber.valueCount() > settled);
+  }
+
+  /**
+   * 没有暂停时也只按下游的 request 向上游请求
+   */
+  @Test public void boundedDownstreamDemandIsRespected() throws Exception {
+    LiveBufferPolicy policy = LiveBufferPolicy.unbounded().withPausedDemand();
+    TestLifecycleOwner owner = resumedOwner();
+    TestSubscriber<Long> subscriber = producer
+        .compose(RxLifeHelper.<Long>bindLifeLiveOwnerUntilEvent(owner,
+            Lifecycle.Event.ON_DESTROY, policy))
+        .test(10);
+
+    Thread.sleep(100);
+    main.idle();
+
+    assertEquals(10, produced.get());
+    subscriber.assertValueCount(10);
+    subscriber.request(300);
+    awaitProduced(310);
+    Thread.sleep(100);
+    main.idle();
+    assertEquals(310, produced.get());
+    subscriber.assertValueCount(310);
+    subscriber.cancel();
+  }
+
+  /**
+   * latest 每批只请求一个，暂停后上游最多再生产一个
+   */
+  @Test public void latestRequestsOneAtATime() throws Exception {
+    LiveBufferPolicy policy = LiveBufferPolicy.latest().withPausedDemand();
+    TestLifecycleOwner owner = resumedOwner();
+    TestSubscriber<Long> subscriber = producer
+        .compose(RxLifeHelper.<Long>bindLifeLiveOwnerUntilEvent(owner,
+            Lifecycle.Event.ON_DESTROY, policy))
+        .test();
+    awaitProduced(100);
+
+    moveTo(owner, Lifecycle.State.CREATED);
+    long atPause = produced.get();
+    Thread.sleep(100);
+
+    assertTrue(produced.get() - atPause <= 1);
+    subscriber.cancel();
+  }
+
+  private void awaitProduced(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (produced.get() < count) {
+      assertTrue("produced " + produced.get(), System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+  }
+}
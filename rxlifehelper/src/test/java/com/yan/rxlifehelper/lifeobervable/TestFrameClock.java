@@ -0,0 +1,34 @@
+package com.yan.rxlifehelper.lifeobervable;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 由测试驱动的帧时钟，{@link #frame()} 在主线程执行这一帧之前提交的回调
+ */
+final class TestFrameClock extends FrameClock {
+  private final ConcurrentLinkedQueue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+
+  @Override public void postFrameCallback(Runnable callback) {
+    callbacks.offer(callback);
+  }
+
+  boolean hasCallbacks() {
+    return !callbacks.isEmpty();
+  }
+
+  /**
+   * @return 执行的回调个数
+   */
+  int frame() {
+    int count = 0;
+    for (int i = callbacks.size(); i > 0; i--) {
+      Runnable callback = callbacks.poll();
+      if (callback == null) {
+        break;
+      }
+      callback.run();
+      count++;
+    }
+    return count;
+  }
+}